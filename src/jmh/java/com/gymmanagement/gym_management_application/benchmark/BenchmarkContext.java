@@ -0,0 +1,108 @@
+package com.gymmanagement.gym_management_application.benchmark;
+
+import com.gymmanagement.gym_management_application.GymManagementApplication;
+import com.gymmanagement.gym_management_application.service.MemberService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Starts the application, with or without the web layer, against a private embedded H2 database, and seeds it
+// with JDBC batches so benchmarks can set up large catalogs quickly.
+final class BenchmarkContext {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        return run("--spring.main.web-application-type=none", extraArgs);
+    }
+
+    // Start the application with its embedded web server on a free port, see localPort
+    static ConfigurableApplicationContext startWeb(String... extraArgs) {
+        return run("--server.port=0", extraArgs);
+    }
+
+    static int localPort(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext run(String webArg, String... extraArgs) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                webArg,
+                "--spring.main.banner-mode=off",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        return SpringApplication.run(GymManagementApplication.class, args.toArray(String[]::new));
+    }
+
+    // Insert the given number of one-day classes on consecutive days from the start date, returning the first id
+    static long seedClasses(ConfigurableApplicationContext context, int count, LocalDate firstDate, int capacity) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            LocalDate startDate = firstDate.plusDays(i);
+            rows.add(new Object[]{"Class " + i, Date.valueOf(startDate), Date.valueOf(startDate.plusDays(1)),
+                    Time.valueOf(LocalTime.of(9, 0)), 60, capacity});
+            if (rows.size() == SEED_BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into club_class (name, start_date, end_date, start_time, duration, " +
+                        "capacity) values (?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        return jdbcTemplate.queryForObject("select min(id) from club_class", Long.class);
+    }
+
+    // Insert bookings of one member on consecutive participation dates of a class, one booking per day as the
+    // member slot constraint allows
+    static void seedBookings(ConfigurableApplicationContext context, String memberName, long classId,
+                             LocalDate firstDate, int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long memberId = context.getBean(MemberService.class).resolve(memberName).getId();
+
+        // Bookings reference the session of their date, created here when the class has none yet
+        List<Object[]> sessionRows = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int day = 0; day < count; day++) {
+            Date date = Date.valueOf(firstDate.plusDays(day));
+            sessionRows.add(new Object[]{date, classId, date});
+            if (sessionRows.size() == SEED_BATCH_SIZE || day == count - 1) {
+                jdbcTemplate.batchUpdate("insert into class_session (class_id, participation_date, capacity, " +
+                        "booked) select id, ?, capacity, 0 from club_class c where id = ? and not exists " +
+                        "(select 1 from class_session s where s.class_id = c.id and s.participation_date = ?)",
+                        sessionRows);
+                sessionRows.clear();
+            }
+        }
+        Map<LocalDate, Long> sessionIds = new HashMap<>();
+        jdbcTemplate.query("select id, participation_date from class_session where class_id = ? " +
+                        "and participation_date between ? and ?",
+                row -> {
+                    sessionIds.put(row.getDate("participation_date").toLocalDate(), row.getLong("id"));
+                }, classId, Date.valueOf(firstDate), Date.valueOf(firstDate.plusDays(count - 1)));
+
+        List<Object[]> rows = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = firstDate.plusDays(i);
+            rows.add(new Object[]{memberId, classId, Date.valueOf(date), sessionIds.get(date)});
+            if (rows.size() == SEED_BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into booking (id, member_id, class_id, participation_date, " +
+                        "session_id) values (next value for booking_seq, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
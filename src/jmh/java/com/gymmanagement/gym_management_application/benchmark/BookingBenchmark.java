@@ -0,0 +1,53 @@
+package com.gymmanagement.gym_management_application.benchmark;
+
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Single booking creation through BookingService.createBooking, spread over many dates of one large class
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+
+    private static final int DAYS = 300;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private long classId;
+    private LocalDate firstDate;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookingService = context.getBean(BookingService.class);
+        firstDate = LocalDate.now().plusDays(1);
+
+        // One class running every day with room for every booking the benchmark makes
+        classId = BenchmarkContext.seedClasses(context, 1, firstDate, Integer.MAX_VALUE);
+        context.getBean(JdbcTemplate.class)
+                .update("update club_class set end_date = ? where id = ?", firstDate.plusDays(DAYS), classId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookingResponseDto createBooking() {
+        long n = counter++;
+        return bookingService.createBooking(new BookingDto("Member " + n, classId,
+                firstDate.plusDays(n % DAYS), null));
+    }
+}
@@ -0,0 +1,78 @@
+package com.gymmanagement.gym_management_application.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Load test of POST /api/bookings over HTTP with more concurrent clients than Tomcat has platform worker
+// threads, run once on the platform-thread pool and once with the virtual-threads profile. Throughput mode
+// gives requests per second, sample mode gives the latency distribution including p0.99:
+//   mvn -Pbenchmark test-compile exec:exec -Djmh.args="BookingLoadBenchmark -rf json -rff target/jmh-result.json"
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class BookingLoadBenchmark {
+
+    private static final int DAYS = 300;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private final AtomicLong counter = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI bookingsUri;
+    private long classId;
+    private LocalDate firstDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "virtual".equals(threads)
+                ? BenchmarkContext.startWeb("--spring.profiles.active=virtual-threads")
+                : BenchmarkContext.startWeb();
+        firstDate = LocalDate.now().plusDays(1);
+
+        // One class running every day with room for every booking the load test makes
+        classId = BenchmarkContext.seedClasses(context, 1, firstDate, Integer.MAX_VALUE);
+        context.getBean(JdbcTemplate.class)
+                .update("update club_class set end_date = ? where id = ?", firstDate.plusDays(DAYS), classId);
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        bookingsUri = URI.create("http://localhost:" + BenchmarkContext.localPort(context) + "/api/bookings");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int postBooking() throws Exception {
+        long n = counter.getAndIncrement();
+        String body = "{\"memberName\":\"Member " + n + "\",\"classId\":" + classId
+                + ",\"participationDate\":\"" + firstDate.plusDays(n % DAYS) + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(bookingsUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Booking failed with HTTP " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
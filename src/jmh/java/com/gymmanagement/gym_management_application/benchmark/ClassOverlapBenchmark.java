@@ -0,0 +1,84 @@
+package com.gymmanagement.gym_management_application.benchmark;
+
+import com.gymmanagement.gym_management_application.cache.ClassIntervalIndex;
+import com.gymmanagement.gym_management_application.dto.ClassDto;
+import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.service.ClassService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Overlap validation in ClassService.createClass against catalogs of different sizes. Each attempt overlaps
+// a random existing class, so it measures the conflict lookup without growing the catalog. "index" answers
+// from the in-memory interval index. "database" verifies every lookup with the repository query and keeps the
+// index empty, so the query is the one that finds the conflict.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassOverlapBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int catalogSize;
+
+    @Param({"index", "database"})
+    public String lookup;
+
+    private ConfigurableApplicationContext context;
+    private ClassService classService;
+    private ClassIntervalIndex classIntervalIndex;
+    private LocalDate firstDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--gym.class-overlap.verify-with-database=" + "database".equals(lookup));
+        classService = context.getBean(ClassService.class);
+        classIntervalIndex = context.getBean(ClassIntervalIndex.class);
+        firstDate = LocalDate.now().plusDays(1);
+        BenchmarkContext.seedClasses(context, catalogSize, firstDate, 20);
+        if ("index".equals(lookup)) {
+            classService.loadClassIndex();
+        }
+
+        // The index is loaded on startup before the seeding, so make sure the chosen lookup really sees the catalog
+        resetIndex();
+        if (!(createOverlappingClass(firstDate) instanceof ValidationException)) {
+            throw new IllegalStateException("The probe class did not conflict with the seeded catalog");
+        }
+    }
+
+    // A conflict found by the repository query is added to the index, which would answer the next attempt on
+    // the same class. Empty it again so every attempt goes to the database.
+    @Setup(Level.Invocation)
+    public void resetIndex() {
+        if ("database".equals(lookup)) {
+            classIntervalIndex.rebuild(List.of());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createOverlappingClass() {
+        return createOverlappingClass(firstDate.plusDays(ThreadLocalRandom.current().nextInt(catalogSize)));
+    }
+
+    private Object createOverlappingClass(LocalDate startDate) {
+        try {
+            return classService.createClass(new ClassDto("Overlapping Class", startDate, startDate.plusDays(2),
+                    LocalTime.of(9, 0), 60, 20));
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.gymmanagement.gym_management_application.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gymmanagement.gym_management_application.dto.BookingPageDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.dto.ClassResponseDto;
+import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// JSON serialization of a GenericResponse wrapping a page of bookings, configured like Spring Boot's ObjectMapper
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenericResponseSerializationBenchmark {
+
+    private static final int CLASSES = 10;
+
+    @Param({"1", "50", "500"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private GenericResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        LocalDate date = LocalDate.now().plusDays(1);
+        Map<Long, ClassResponseDto> classes = new HashMap<>();
+        for (long id = 1; id <= CLASSES; id++) {
+            classes.put(id, new ClassResponseDto(id, "Class " + id, date, date.plusDays(30),
+                    LocalTime.of(9, 0), 60, 20, EnumSet.allOf(DayOfWeek.class)));
+        }
+        List<BookingResponseDto> bookings = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            bookings.add(new BookingResponseDto(id, "Member " + id, 1 + id % CLASSES, date, LocalTime.of(9, 0)));
+        }
+        response = new GenericResponse().success("Bookings fetched successfully.",
+                new BookingPageDto(bookings, classes, null));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,68 @@
+package com.gymmanagement.gym_management_application.benchmark;
+
+import com.gymmanagement.gym_management_application.dto.BookingPageDto;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// BookingService.searchBookings for a member with the given number of bookings, reading every page,
+// plus the NDJSON streaming path over the same rows. Other members' bookings make up the rest of the table.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBookingsBenchmark {
+
+    // 100,000 bookings of other members; a member holds one booking per class and day
+    private static final int BACKGROUND_MEMBERS = 1000;
+    private static final int BACKGROUND_BOOKINGS_PER_MEMBER = 100;
+    private static final int PAGE_SIZE = 500;
+
+    @Param({"10", "1000", "10000"})
+    public int resultSize;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private String memberName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookingService = context.getBean(BookingService.class);
+
+        LocalDate firstDate = LocalDate.now().plusDays(1);
+        long classId = BenchmarkContext.seedClasses(context, 1, firstDate, Integer.MAX_VALUE);
+        memberName = "Member " + resultSize;
+        for (int i = 0; i < BACKGROUND_MEMBERS; i++) {
+            BenchmarkContext.seedBookings(context, "Background Member " + i, classId, firstDate,
+                    BACKGROUND_BOOKINGS_PER_MEMBER);
+        }
+        BenchmarkContext.seedBookings(context, memberName, classId, firstDate, resultSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void searchAllPages(Blackhole blackhole) {
+        Long cursor = null;
+        do {
+            BookingPageDto page = bookingService.searchBookings(memberName, null, null, cursor, PAGE_SIZE);
+            blackhole.consume(page);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+        bookingService.streamBookings(memberName, null, null, blackhole::consume);
+    }
+}
@@ -0,0 +1,85 @@
+package com.gymmanagement.gym_management_application.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// A token bucket per key, each kept as a single long updated by compare-and-set: the time at which the bucket
+// would be full again (the generic cell rate algorithm). A request is let through while that time lies at most
+// burst - 1 intervals ahead, and pushes it one interval further. Buckets live in a ConcurrentHashMap, so
+// lookups take no lock and only the first request of a key locks one bin of the table; buckets that have filled
+// up again hold no information and are dropped by evictFull.
+public final class KeyedRateLimiter {
+
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public KeyedRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    public KeyedRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.burst = burst;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.nanoClock = nanoClock;
+    }
+
+    // Takes a permit for the key. Returns 0 when it was taken, otherwise the nanoseconds until one is available.
+    public long tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    // Takes the given number of permits for the key at once. Returns 0 when they were taken, otherwise the
+    // nanoseconds until they can be. Permits beyond the burst are taken on credit: they are granted once the
+    // bucket is full, and the key then waits for the debt to be paid off before its next permit.
+    public long tryAcquire(String key, int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("Permits must be at least 1");
+        }
+        long now = nanoClock.getAsLong();
+        AtomicLong fullAt = buckets.computeIfAbsent(key, absent -> new AtomicLong(now));
+        long upFront = Math.min(permits, burst);
+        while (true) {
+            long current = fullAt.get();
+            long start = current - now > 0 ? current : now;
+            long wait = start + intervalNanos * (upFront - 1) - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, start + intervalNanos * permits)) {
+                return 0;
+            }
+        }
+    }
+
+    // Gives back permits taken for a request that was turned away afterwards. A bucket that refilled in the
+    // meantime, or was dropped, gains nothing.
+    public void refund(String key, int permits) {
+        AtomicLong fullAt = buckets.get(key);
+        if (fullAt != null) {
+            fullAt.addAndGet(-intervalNanos * permits);
+        }
+    }
+
+    // Drop the buckets that are full again. A request racing the removal may have its permit forgotten, which
+    // only ever gives that key one permit more.
+    public int evictFull() {
+        long now = nanoClock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
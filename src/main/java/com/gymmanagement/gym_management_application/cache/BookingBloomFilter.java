@@ -0,0 +1,90 @@
+package com.gymmanagement.gym_management_application.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter over the (member, class, participation date) slots holding an active booking. A slot the filter
+// has never seen certainly holds no booking of the member, so the duplicate check can skip its database query;
+// a hit may be a false positive, at the configured rate, or a booking cancelled since, and is confirmed against
+// the database. Bits are set with compare-and-set on a shared array, so adds and lookups never lock.
+@Component
+public class BookingBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile boolean loaded;
+
+    public BookingBloomFilter(@Value("${gym.duplicate-filter.expected-bookings:1000000}") long expectedBookings,
+                              @Value("${gym.duplicate-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        // The standard sizing: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+        long bits = (long) Math.ceil(-expectedBookings * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedBookings * Math.log(2)));
+    }
+
+    // Mark the filter complete once every active booking was added. Bookings added while the caller was reading
+    // them from the database are kept.
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void add(Long memberId, Long classId, LocalDate participationDate) {
+        long hash = hash(memberId, classId, participationDate);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    // False only when the member certainly holds no booking for the slot; always true until the filter is loaded
+    public boolean mightContain(Long memberId, Long classId, LocalDate participationDate) {
+        if (!loaded) {
+            return true;
+        }
+        long hash = hash(memberId, classId, participationDate);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Slots added since startup, cancelled ones included; the false positive rate holds up to the expected count
+    public long insertionCount() {
+        return insertions.get();
+    }
+
+    // 64-bit mix of the three key parts (the SplitMix64 finalizer), split into the two hashes of double hashing
+    private static long hash(Long memberId, Long classId, LocalDate participationDate) {
+        long hash = memberId * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ classId) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ participationDate.toEpochDay()) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        return hash ^ (hash >>> 29);
+    }
+}
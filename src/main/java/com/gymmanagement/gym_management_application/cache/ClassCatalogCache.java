@@ -0,0 +1,79 @@
+package com.gymmanagement.gym_management_application.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmanagement.gym_management_application.dto.ClassResponseDto;
+import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Immutable snapshot of the class catalog, kept together with the GET /api/classes response already
+// serialized to JSON and a strong ETag for it. The snapshot is built on the first read and then served
+// as is until a change to the catalog invalidates it, so polling an unchanged catalog touches neither
+// the database nor Jackson.
+@Component
+public class ClassCatalogCache {
+
+    private static final String MESSAGE = "Classes retrieved successfully.";
+
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot current;
+
+    // Bumped on every invalidation so a rebuild that raced with it is not published
+    private final AtomicLong generation = new AtomicLong();
+
+    public ClassCatalogCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Return the current snapshot, building it with the given loader if the catalog changed since the last one
+    public Snapshot get(Supplier<List<ClassResponseDto>> loader) {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        // Let one caller rebuild while concurrent pollers wait for its result instead of all loading the catalog
+        rebuildLock.lock();
+        try {
+            snapshot = current;
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long buildGeneration = generation.get();
+            snapshot = build(loader.get());
+            if (generation.get() == buildGeneration) {
+                current = snapshot;
+            }
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Drop the snapshot once a change to the catalog has been committed
+    public void invalidate() {
+        generation.incrementAndGet();
+        current = null;
+    }
+
+    private Snapshot build(List<ClassResponseDto> classes) {
+        List<ClassResponseDto> catalog = List.copyOf(classes);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(new GenericResponse().success(MESSAGE, catalog));
+            return new Snapshot(catalog, body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the class catalog", e);
+        }
+    }
+
+    // The catalog, the JSON response body for it and the strong ETag of that body
+    public record Snapshot(List<ClassResponseDto> classes, byte[] body, String etag) {
+    }
+}
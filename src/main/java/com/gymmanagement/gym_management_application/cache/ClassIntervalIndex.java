@@ -0,0 +1,288 @@
+package com.gymmanagement.gym_management_application.cache;
+
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.WeeklyRecurrence;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory interval tree over the date ranges of all classes, used by ClassService to find overlapping
+// classes without a range scan in the database. The tree is an AVL tree ordered by start date whose nodes
+// also carry the latest end date of their subtree, so a query visits only the O(log n) nodes on its search
+// path plus the k intervals it reports.
+@Component
+public class ClassIntervalIndex {
+
+    // DATE treats any two classes with overlapping date ranges as conflicting. TIME_OF_DAY additionally
+    // requires their daily time windows (start time plus duration) to overlap on a common day of the week, with
+    // a window running past midnight going on into the next day.
+    public enum OverlapMode {
+        DATE,
+        TIME_OF_DAY
+    }
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final OverlapMode mode;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+    private int size;
+    private volatile boolean loaded;
+
+    public ClassIntervalIndex(@Value("${gym.class-overlap.mode:DATE}") OverlapMode mode) {
+        this.mode = mode;
+    }
+
+    // Replace the whole index with the given classes. Builds a balanced tree from the sorted intervals in one pass.
+    public void rebuild(Collection<ClubClass> classes) {
+        List<ClassInterval> intervals = new ArrayList<>(classes.size());
+        for (ClubClass clazz : classes) {
+            intervals.add(ClassInterval.of(clazz));
+        }
+        intervals.sort(Comparator.comparingLong(ClassInterval::startDay).thenComparingLong(ClassInterval::classId));
+
+        lock.writeLock().lock();
+        try {
+            root = build(intervals, 0, intervals.size() - 1);
+            size = intervals.size();
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add a newly created class
+    public void add(ClubClass clazz) {
+        ClassInterval interval = ClassInterval.of(clazz);
+        lock.writeLock().lock();
+        try {
+            root = insert(root, interval);
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Classes that conflict with the given schedule under the configured overlap mode, in start date order.
+    // Date ranges overlap when each one starts before the other ends, so ranges that only touch do not conflict.
+    public List<ClassInterval> findConflicts(LocalDate startDate, LocalDate endDate, LocalTime startTime, int duration,
+                                             int daysOfWeek) {
+        List<ClassInterval> overlapping = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collect(root, startDate.toEpochDay(), endDate.toEpochDay(), overlapping);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (mode == OverlapMode.TIME_OF_DAY) {
+            int startMinute = minuteOfDay(startTime);
+            overlapping.removeIf(interval -> !schedulesOverlap(interval.daysOfWeek(), interval.startMinute(),
+                    interval.endMinute(), daysOfWeek, startMinute, startMinute + duration));
+        }
+        return overlapping;
+    }
+
+    // Whether an existing class conflicts with the given schedule under the configured overlap mode
+    public boolean conflicts(ClubClass existing, LocalDate startDate, LocalDate endDate, LocalTime startTime, int duration,
+                             int daysOfWeek) {
+        if (!existing.getStartDate().isBefore(endDate) || !existing.getEndDate().isAfter(startDate)) {
+            return false;
+        }
+        if (mode == OverlapMode.DATE) {
+            return true;
+        }
+        int existingStart = minuteOfDay(existing.getStartTime());
+        int startMinute = minuteOfDay(startTime);
+        return schedulesOverlap(existing.getDaysOfWeek(), existingStart, existingStart + existing.getDuration(),
+                daysOfWeek, startMinute, startMinute + duration);
+    }
+
+    // False until the first rebuild, callers must fall back to the database until then
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public OverlapMode getMode() {
+        return mode;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whether two daily time windows overlap on a common day of the week. A window ending after midnight is
+    // split into one piece per day it runs into, each on the days following the class's own; after a week the
+    // pieces only repeat days already covered.
+    private static boolean schedulesOverlap(int firstDays, int firstStart, int firstEnd,
+                                            int secondDays, int secondStart, int secondEnd) {
+        for (int first = 0; first <= 7 && first * MINUTES_PER_DAY < firstEnd; first++) {
+            for (int second = 0; second <= 7 && second * MINUTES_PER_DAY < secondEnd; second++) {
+                if ((WeeklyRecurrence.shift(firstDays, first) & WeeklyRecurrence.shift(secondDays, second)) != 0
+                        && timesOverlap(pieceStart(firstStart, first), pieceEnd(firstEnd, first),
+                        pieceStart(secondStart, second), pieceEnd(secondEnd, second))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Bounds of the piece of a window that falls on the given number of days after it starts
+    private static int pieceStart(int start, int day) {
+        return Math.max(start - day * MINUTES_PER_DAY, 0);
+    }
+
+    private static int pieceEnd(int end, int day) {
+        return Math.min(end - day * MINUTES_PER_DAY, MINUTES_PER_DAY);
+    }
+
+    private static boolean timesOverlap(int firstStart, int firstEnd, int secondStart, int secondEnd) {
+        return firstStart < secondEnd && secondStart < firstEnd;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static void collect(Node node, long startDay, long endDay, List<ClassInterval> out) {
+        // Nothing in this subtree ends after the query starts
+        if (node == null || node.maxEndDay <= startDay) {
+            return;
+        }
+        collect(node.left, startDay, endDay, out);
+        // Right subtree only holds intervals starting at or after this node, skip it once they start too late
+        if (node.interval.startDay() < endDay) {
+            if (node.interval.endDay() > startDay) {
+                out.add(node.interval);
+            }
+            collect(node.right, startDay, endDay, out);
+        }
+    }
+
+    private static Node build(List<ClassInterval> sorted, int from, int to) {
+        if (from > to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node node = new Node(sorted.get(middle));
+        node.left = build(sorted, from, middle - 1);
+        node.right = build(sorted, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    private static Node insert(Node node, ClassInterval interval) {
+        if (node == null) {
+            return new Node(interval);
+        }
+        if (compare(interval, node.interval) < 0) {
+            node.left = insert(node.left, interval);
+        } else {
+            node.right = insert(node.right, interval);
+        }
+        update(node);
+        return balance(node);
+    }
+
+    private static int compare(ClassInterval first, ClassInterval second) {
+        int byStart = Long.compare(first.startDay(), second.startDay());
+        return byStart != 0 ? byStart : Long.compare(first.classId(), second.classId());
+    }
+
+    private static Node balance(Node node) {
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.interval.endDay();
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEndDay);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEndDay);
+        }
+        node.maxEndDay = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    // Date range, days of the week (a WeeklyRecurrence mask) and daily time window of one class, with dates kept
+    // as epoch days
+    public record ClassInterval(long classId, long startDay, long endDay, int daysOfWeek, int startMinute,
+                                int endMinute) {
+
+        static ClassInterval of(ClubClass clazz) {
+            int startMinute = minuteOfDay(clazz.getStartTime());
+            return new ClassInterval(clazz.getId(), clazz.getStartDate().toEpochDay(), clazz.getEndDate().toEpochDay(),
+                    clazz.getDaysOfWeek(), startMinute, startMinute + clazz.getDuration());
+        }
+
+        public LocalDate startDate() {
+            return LocalDate.ofEpochDay(startDay);
+        }
+
+        public LocalDate endDate() {
+            return LocalDate.ofEpochDay(endDay);
+        }
+    }
+
+    private static final class Node {
+        private final ClassInterval interval;
+        private Node left;
+        private Node right;
+        private int height = 1;
+        private long maxEndDay;
+
+        private Node(ClassInterval interval) {
+            this.interval = interval;
+            this.maxEndDay = interval.endDay();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.gymmanagement.gym_management_application.cache;
+
+import com.gymmanagement.gym_management_application.dto.MemberDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// In-memory index of member names for exact lookups and case-insensitive prefix search. Every member is
+// indexed under its lower-cased name and again under each later word of it, so "smi" finds "John Smith".
+// The keys sit in a sorted map, which gives the walk of a trie over the same keys - seek to the prefix and read
+// the matches in order - at a fraction of the memory of one node per character: a lookup costs O(log n) plus
+// the k matches it reads.
+@Component
+public class MemberNameIndex {
+
+    // Separates a key from the member id that makes it unique, and sorts before any character of a name
+    private static final char ID_SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, MemberDto> byKey = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    // Add every given member. Members added while the caller was reading them from the database are kept.
+    public void rebuild(Collection<MemberDto> members) {
+        members.forEach(this::add);
+        loaded = true;
+    }
+
+    // Add a member, or do nothing when it is already indexed
+    public void add(MemberDto member) {
+        if (idsByName.putIfAbsent(member.getName(), member.getMemberId()) != null) {
+            return;
+        }
+        for (String key : keysOf(member.getName())) {
+            byKey.put(key + ID_SEPARATOR + member.getMemberId(), member);
+        }
+    }
+
+    // Id of the member with exactly this name
+    public Optional<Long> findId(String name) {
+        return Optional.ofNullable(idsByName.get(name));
+    }
+
+    // Up to limit members with a name or a word of it starting with the prefix, ignoring case, ordered by the
+    // matching text
+    public List<MemberDto> findByPrefix(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        NavigableMap<String, MemberDto> matches = byKey.tailMap(normalizedPrefix, true);
+
+        // A member matching through several words is reported once
+        Set<MemberDto> members = new LinkedHashSet<>();
+        for (Map.Entry<String, MemberDto> match : matches.entrySet()) {
+            if (!match.getKey().startsWith(normalizedPrefix) || members.size() == limit) {
+                break;
+            }
+            members.add(match.getValue());
+        }
+        return new ArrayList<>(members);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return idsByName.size();
+    }
+
+    // The normalized name and each of its suffixes that starts a word
+    private static List<String> keysOf(String name) {
+        String normalized = normalize(name);
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    // Lower-case and collapse whitespace, so the index matches however the name was typed
+    public static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,193 @@
+package com.gymmanagement.gym_management_application.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Bounded LRU cache of seat counts per (class, participation date) slot with a time-to-live.
+// The database stays authoritative: the cache only answers availability reads and lets
+// BookingService reject bookings for slots it already knows are full.
+@Component
+public class SeatAvailabilityCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<SlotKey, Entry> entries;
+
+    // Bumped on every invalidation so a load that raced with it is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SeatAvailabilityCache(@Value("${gym.availability-cache.max-entries:10000}") int maxEntries,
+                                 @Value("${gym.availability-cache.ttl:5m}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SlotKey, SeatAvailabilityCache.Entry> eldest) {
+                if (size() > SeatAvailabilityCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Return the cached seats for the slot, loading them with the given loader on a miss or after expiry
+    public SeatCount get(Long classId, LocalDate participationDate, Supplier<SeatCount> loader) {
+        SlotKey key = new SlotKey(classId, participationDate.toEpochDay());
+        SeatCount cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        return load(key, loader);
+    }
+
+    // Same as get, but left out of the hit and miss counts like isKnownFull, for the reads the booking paths
+    // make of a slot's count
+    public SeatCount getUncounted(Long classId, LocalDate participationDate, Supplier<SeatCount> loader) {
+        SlotKey key = new SlotKey(classId, participationDate.toEpochDay());
+        SeatCount cached = lookup(key);
+        return cached != null ? cached : load(key, loader);
+    }
+
+    private SeatCount load(SlotKey key, Supplier<SeatCount> loader) {
+        long loadGeneration = generation.get();
+        SeatCount loaded = loader.get();
+        lock.lock();
+        try {
+            // Skip caching a value that may predate an invalidation issued while loading
+            if (generation.get() == loadGeneration) {
+                Entry entry = entries.get(key);
+                if (entry == null || entry.isExpired(System.nanoTime())) {
+                    entries.put(key, new Entry(loaded.capacity(), loaded.booked(), System.nanoTime() + ttlNanos));
+                } else {
+                    entry.merge(loaded.capacity(), loaded.booked());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+
+    // True only when the slot is cached and already fully booked; a miss never counts as full. Left out of the
+    // hit and miss counts, which describe the availability reads served by get.
+    public boolean isKnownFull(Long classId, LocalDate participationDate) {
+        SeatCount cached = lookup(new SlotKey(classId, participationDate.toEpochDay()));
+        return cached != null && cached.remaining() <= 0;
+    }
+
+    // Record the booked count observed in the database after a successful booking. Counts only
+    // grow between invalidations, so the larger observation wins regardless of arrival order.
+    public void recordBooked(Long classId, LocalDate participationDate, int capacity, int booked) {
+        SlotKey key = new SlotKey(classId, participationDate.toEpochDay());
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null || entry.isExpired(System.nanoTime())) {
+                entries.put(key, new Entry(capacity, booked, System.nanoTime() + ttlNanos));
+            } else {
+                entry.merge(capacity, booked);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drop the slot so the next read reloads it from the database
+    public void invalidate(Long classId, LocalDate participationDate) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.remove(new SlotKey(classId, participationDate.toEpochDay()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SeatCount lookup(SlotKey key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                evictions.increment();
+                return null;
+            }
+            return new SeatCount(entry.capacity, entry.booked);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record SeatCount(int capacity, int booked) {
+        public int remaining() {
+            return Math.max(0, capacity - booked);
+        }
+    }
+
+    private record SlotKey(long classId, long epochDay) {
+    }
+
+    private static final class Entry {
+        private int capacity;
+        private int booked;
+        private final long expiresAtNanos;
+
+        private Entry(int capacity, int booked, long expiresAtNanos) {
+            this.capacity = capacity;
+            this.booked = booked;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+
+        private void merge(int capacity, int booked) {
+            this.capacity = capacity;
+            this.booked = Math.max(this.booked, booked);
+        }
+    }
+}
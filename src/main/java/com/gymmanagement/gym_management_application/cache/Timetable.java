@@ -0,0 +1,131 @@
+package com.gymmanagement.gym_management_application.cache;
+
+import com.gymmanagement.gym_management_application.dto.TimetableSessionDto;
+import com.gymmanagement.gym_management_application.repository.SessionView;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// In-memory timetable of the class sessions from a first day to the end of the session window, bucketed by day.
+// Bucket i holds the sessions of the i-th day after the first as an array sorted by start time, so reading a
+// week is seven array reads. Seat counts are kept current by applying the seats each committed booking took or
+// each cancellation gave back, and the periodic rebuild from the database corrects any count that drifted.
+@Component
+public class Timetable {
+
+    private static final Session[] NO_SESSIONS = new Session[0];
+    private static final Comparator<Session> BY_START_TIME =
+            Comparator.comparing(Session::startTime).thenComparing(Session::classId);
+
+    private volatile Days days = new Days(0, new AtomicReferenceArray<>(0));
+    private volatile boolean loaded;
+
+    // Replace the timetable with the given sessions, covering dayCount days from the first day
+    public void rebuild(LocalDate firstDay, int dayCount, Collection<SessionView> sessions) {
+        long firstEpochDay = firstDay.toEpochDay();
+        List<List<Session>> byDay = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            byDay.add(new ArrayList<>());
+        }
+        for (SessionView session : sessions) {
+            long index = session.participationDate().toEpochDay() - firstEpochDay;
+            if (index >= 0 && index < dayCount) {
+                byDay.get((int) index).add(new Session(session));
+            }
+        }
+
+        AtomicReferenceArray<Session[]> buckets = new AtomicReferenceArray<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            Session[] bucket = byDay.get(i).toArray(NO_SESSIONS);
+            Arrays.sort(bucket, BY_START_TIME);
+            buckets.set(i, bucket);
+        }
+        days = new Days(firstEpochDay, buckets);
+        loaded = true;
+    }
+
+    // Add or replace the sessions of a class on the days the timetable covers
+    public void addSessions(Collection<SessionView> sessions) {
+        Days current = days;
+        for (SessionView view : sessions) {
+            int index = current.indexOf(view.participationDate());
+            if (index < 0) {
+                continue;
+            }
+            Session added = new Session(view);
+            // Copy on write, so readers of the bucket never see it half updated
+            current.buckets().updateAndGet(index, bucket -> {
+                List<Session> updated = new ArrayList<>(bucket.length + 1);
+                for (Session session : bucket) {
+                    if (!session.classId().equals(added.classId())) {
+                        updated.add(session);
+                    }
+                }
+                updated.add(added);
+                updated.sort(BY_START_TIME);
+                return updated.toArray(NO_SESSIONS);
+            });
+        }
+    }
+
+    // Apply a change in booked seats to the class's session on the date, if the timetable holds it
+    public void adjustBooked(Long classId, LocalDate date, int delta) {
+        Days current = days;
+        int index = current.indexOf(date);
+        if (index < 0) {
+            return;
+        }
+        for (Session session : current.buckets().get(index)) {
+            if (session.classId().equals(classId)) {
+                session.booked().addAndGet(delta);
+                return;
+            }
+        }
+    }
+
+    // Sessions of the day in start time order, none for a day the timetable does not cover
+    public List<TimetableSessionDto> getDay(LocalDate date) {
+        Days current = days;
+        int index = current.indexOf(date);
+        if (index < 0) {
+            return List.of();
+        }
+        Session[] bucket = current.buckets().get(index);
+        List<TimetableSessionDto> sessions = new ArrayList<>(bucket.length);
+        for (Session session : bucket) {
+            sessions.add(new TimetableSessionDto(session.classId(), session.name(), session.startTime(),
+                    session.duration(), session.capacity(),
+                    Math.max(0, session.capacity() - session.booked().get())));
+        }
+        return sessions;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // The day buckets and the epoch day of the first one
+    private record Days(long firstEpochDay, AtomicReferenceArray<Session[]> buckets) {
+        int indexOf(LocalDate date) {
+            long index = date.toEpochDay() - firstEpochDay;
+            return index >= 0 && index < buckets.length() ? (int) index : -1;
+        }
+    }
+
+    // A class's session on one day; only the booked count changes after it is built
+    private record Session(Long classId, String name, LocalTime startTime, Integer duration, Integer capacity,
+                           AtomicInteger booked) {
+        Session(SessionView view) {
+            this(view.classId(), view.className(), view.startTime(), view.duration(), view.capacity(),
+                    new AtomicInteger(view.booked()));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.gymmanagement.gym_management_application.config;
+
+import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Counts every failed GenericResponse by its errorCode, whether it came from a controller's own
+// catch block or from GlobalExceptionHandler, so failures show up as gym.api.errors{code=...}
+@RestControllerAdvice
+public class ErrorCodeMetricsAdvice implements ResponseBodyAdvice<Object> {
+
+    private final MeterRegistry meterRegistry;
+
+    public ErrorCodeMetricsAdvice(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof GenericResponse genericResponse && genericResponse.getErrorCode() != null) {
+            Counter.builder("gym.api.errors")
+                    .description("Failed API responses by error code")
+                    .tag("code", genericResponse.getErrorCode())
+                    .tag("uri", uriTemplate(request))
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return body;
+    }
+
+    // Use the matched route template rather than the raw path to keep the tag cardinality bounded
+    private String uriTemplate(ServerHttpRequest request) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            HttpServletRequest servlet = servletRequest.getServletRequest();
+            Object pattern = servlet.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                return pattern.toString();
+            }
+        }
+        return "UNKNOWN";
+    }
+}
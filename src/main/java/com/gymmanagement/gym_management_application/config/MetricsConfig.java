@@ -0,0 +1,41 @@
+package com.gymmanagement.gym_management_application.config;
+
+import com.gymmanagement.gym_management_application.cache.SeatAvailabilityCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Enables @Timed on the service methods
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Exposes the seat availability cache counters, read lazily at scrape time
+    @Bean
+    public MeterBinder seatAvailabilityCacheMetrics(SeatAvailabilityCache seatCache) {
+        return registry -> {
+            FunctionCounter.builder("gym.availability.cache.requests", seatCache, SeatAvailabilityCache::hitCount)
+                    .tag("result", "hit")
+                    .description("Seat availability lookups answered from the cache")
+                    .register(registry);
+            FunctionCounter.builder("gym.availability.cache.requests", seatCache, SeatAvailabilityCache::missCount)
+                    .tag("result", "miss")
+                    .description("Seat availability lookups that went to the database")
+                    .register(registry);
+            FunctionCounter.builder("gym.availability.cache.evictions", seatCache, SeatAvailabilityCache::evictionCount)
+                    .description("Slots evicted from the seat availability cache")
+                    .register(registry);
+            Gauge.builder("gym.availability.cache.size", seatCache, SeatAvailabilityCache::size)
+                    .description("Slots currently held in the seat availability cache")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package com.gymmanagement.gym_management_application.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables the @Scheduled maintenance jobs, such as the compaction of cancelled bookings
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,69 @@
+package com.gymmanagement.gym_management_application.controllers;
+
+import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
+import com.gymmanagement.gym_management_application.service.AnalyticsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    // Endpoint for the utilization of every class, read from the attendance rollups
+    @GetMapping("/classes")
+    public ResponseEntity<GenericResponse> getClassUtilization() {
+        return respond("Class utilization retrieved successfully.", analyticsService::getClassUtilization);
+    }
+
+    // Endpoint for the utilization of one class
+    @GetMapping("/classes/{classId}")
+    public ResponseEntity<GenericResponse> getClassUtilization(@PathVariable Long classId) {
+        try {
+            return ResponseEntity.ok(new GenericResponse().success("Class utilization retrieved successfully.",
+                    analyticsService.getClassUtilization(classId)));
+        } catch (ClassNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new GenericResponse().failure(e.getMessage(), "CLASS_NOT_FOUND")
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_SERVER_ERROR")
+            );
+        }
+    }
+
+    // Endpoint for the utilization per day of the week
+    @GetMapping("/weekdays")
+    public ResponseEntity<GenericResponse> getWeekdayUtilization() {
+        return respond("Weekday utilization retrieved successfully.", analyticsService::getWeekdayUtilization);
+    }
+
+    // Endpoint for the utilization per class start hour
+    @GetMapping("/hours")
+    public ResponseEntity<GenericResponse> getHourlyUtilization() {
+        return respond("Hourly utilization retrieved successfully.", analyticsService::getHourlyUtilization);
+    }
+
+    private ResponseEntity<GenericResponse> respond(String message, Supplier<Object> report) {
+        try {
+            return ResponseEntity.ok(new GenericResponse().success(message, report.get()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_SERVER_ERROR")
+            );
+        }
+    }
+}
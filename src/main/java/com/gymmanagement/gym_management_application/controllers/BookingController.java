@@ -1,22 +1,41 @@
 package com.gymmanagement.gym_management_application.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gymmanagement.gym_management_application.dto.BatchBookingResultDto;
+import com.gymmanagement.gym_management_application.dto.BookingCancellationDto;
 import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingPageDto;
 import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
 import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import com.gymmanagement.gym_management_application.exception.BookingNotFoundException;
+import com.gymmanagement.gym_management_application.exception.BookingQueueFullException;
+import com.gymmanagement.gym_management_application.exception.BookingWaitlistedException;
 import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
+import com.gymmanagement.gym_management_application.exception.DuplicateBookingException;
 import com.gymmanagement.gym_management_application.exception.InvalidParticipationDateException;
 import com.gymmanagement.gym_management_application.exception.CapacityExceededException;
 import com.gymmanagement.gym_management_application.exception.NoRecordsFoundException;
+import com.gymmanagement.gym_management_application.exception.RateLimitExceededException;
+import com.gymmanagement.gym_management_application.service.AdmissionControlService;
 import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.WriteBehindBookingService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -26,15 +45,43 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BookingController {
 
+    // Upper bound on the number of bookings accepted in one batch request
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    // Number of streamed bookings written between flushes to the client
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
+    // Longest Idempotency-Key header accepted, the size of the column it is stored in
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
+    // Seconds a client turned away by a full write-behind queue is asked to wait before retrying
+    private static final String QUEUE_FULL_RETRY_AFTER = "1";
+
     private final BookingService bookingService;
+    private final AdmissionControlService admissionControl;
+    private final ObjectMapper objectMapper;
+
+    // Present only when the write-behind pipeline is enabled
+    private final WriteBehindBookingService writeBehindBookingService;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, AdmissionControlService admissionControl,
+                             ObjectMapper objectMapper,
+                             ObjectProvider<WriteBehindBookingService> writeBehindBookingService) {
         this.bookingService = bookingService;
+        this.admissionControl = admissionControl;
+        this.objectMapper = objectMapper;
+        this.writeBehindBookingService = writeBehindBookingService.getIfAvailable();
     }
 
-    // POST request to create a new booking
+    // POST request to create a new booking. A client retrying after a timeout sends the same Idempotency-Key
+    // header to get the booking its first request created. Clients and members booking too fast are answered
+    // 429 before the booking is looked at.
     @PostMapping
-    public ResponseEntity<GenericResponse> createBooking(@RequestBody @Valid BookingDto bookingDto, BindingResult bindingResult) {
+    public ResponseEntity<GenericResponse> createBooking(@RequestBody @Valid BookingDto bookingDto, BindingResult bindingResult,
+                                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                         HttpServletRequest request) {
 
         // Check if validation fails for BookingDto
         if (bindingResult.hasErrors()) {
@@ -47,14 +94,32 @@ public class BookingController {
             );
         }
 
-        try {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            return ResponseEntity.badRequest().body(
+                    new GenericResponse().failure("Idempotency-Key must be between 1 and " +
+                            MAX_IDEMPOTENCY_KEY_LENGTH + " characters.", "VALIDATION_ERROR")
+            );
+        }
+
+        try (AdmissionControlService.Permit permit =
+                     admissionControl.admit(bookingDto.getMemberName(), request.getRemoteAddr())) {
+            // With the write-behind pipeline the booking is accepted with its id and saved in the background
+            if (writeBehindBookingService != null) {
+                BookingResponseDto acceptedBooking = writeBehindBookingService.submit(bookingDto, idempotencyKey);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                        new GenericResponse().success("Booking accepted.", acceptedBooking)
+                );
+            }
+
             // Call the BookingService to create the booking with the provided details
-            BookingResponseDto createdBooking = bookingService.createBooking(bookingDto);
+            BookingResponseDto createdBooking = bookingService.createBooking(bookingDto, idempotencyKey);
 
             // Return a successful response with a message and the created booking details
             return ResponseEntity.status(HttpStatus.CREATED).body(
                     new GenericResponse().success("Booking created successfully.", createdBooking)
             );
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e);
         } catch (ClassNotFoundException e) {
             log.error("Class not found: ", e);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
@@ -65,11 +130,26 @@ public class BookingController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
                     new GenericResponse().failure(e.getMessage(), "INVALID_DATE")
             );
+        } catch (BookingWaitlistedException e) {
+            // The class is full and the member now holds a place on its waitlist
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(
+                    new GenericResponse().success(e.getMessage(), e.getWaitlistEntry())
+            );
         } catch (CapacityExceededException e) {
             log.error("Class capacity exceeded: ", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
                     new GenericResponse().failure(e.getMessage(), "CAPACITY_EXCEEDED")
             );
+        } catch (DuplicateBookingException e) {
+            // The member already holds a booking for the class on this date
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    new GenericResponse().failure(e.getMessage(), "DUPLICATE_BOOKING")
+            );
+        } catch (BookingQueueFullException e) {
+            log.warn("Write-behind queue full: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, QUEUE_FULL_RETRY_AFTER)
+                    .body(new GenericResponse().failure(e.getMessage(), "SERVICE_BUSY"));
         } catch (Exception e) {
             log.error("Unexpected error: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
@@ -78,17 +158,82 @@ public class BookingController {
         }
     }
 
+    // POST request to create many bookings at once, with one result per submitted booking
+    @PostMapping("/batch")
+    public ResponseEntity<GenericResponse> createBookings(@RequestBody List<BookingDto> bookingDtos,
+                                                          HttpServletRequest request) {
+
+        // Check that the batch is neither empty nor too large
+        if (bookingDtos == null || bookingDtos.isEmpty()) {
+            return ResponseEntity.badRequest().body(
+                    new GenericResponse().failure("Please provide at least one booking.", "VALIDATION_ERROR")
+            );
+        }
+        if (bookingDtos.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(
+                    new GenericResponse().failure("A batch can contain at most " + MAX_BATCH_SIZE + " bookings.",
+                            "VALIDATION_ERROR")
+            );
+        }
+
+        try (AdmissionControlService.Permit permit = admissionControl.admitBatch(
+                bookingDtos.stream().map(BookingDto::getMemberName).collect(Collectors.toList()),
+                bookingDtos.size(), request.getRemoteAddr())) {
+            // Call the BookingService to create the bookings, each item succeeds or fails on its own
+            List<BatchBookingResultDto> results = bookingService.createBookings(bookingDtos);
+            long booked = results.stream().filter(result -> "success".equals(result.getStatus())).count();
 
-    // GET request to search for bookings
+            return ResponseEntity.ok(new GenericResponse().success(String.format(
+                    "Batch processed. %d booked, %d failed.", booked, results.size() - booked), results));
+        } catch (RateLimitExceededException e) {
+            return tooManyRequests(e);
+        } catch (DuplicateBookingException e) {
+            // A concurrent request booked one of the slots for its member first, so none of the batch was saved
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                    new GenericResponse().failure(e.getMessage(), "DUPLICATE_BOOKING")
+            );
+        } catch (Exception e) {
+            log.error("Unexpected error: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_ERROR")
+            );
+        }
+    }
+
+    // DELETE request to cancel a booking, releasing its seat to the waitlist or to new bookings
+    @DeleteMapping("/{id}")
+    public ResponseEntity<GenericResponse> cancelBooking(@PathVariable Long id) {
+        try {
+            // Call the BookingService to cancel the booking
+            BookingCancellationDto cancellation = bookingService.cancelBooking(id);
+
+            // Return a successful response with the cancelled booking and any promoted waitlist booking
+            return ResponseEntity.ok(new GenericResponse().success("Booking cancelled successfully.", cancellation));
+        } catch (BookingNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new GenericResponse().failure(e.getMessage(), "BOOKING_NOT_FOUND")
+            );
+        } catch (Exception e) {
+            log.error("Unexpected error: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_ERROR")
+            );
+        }
+    }
+
+    // GET request to search for bookings, one page at a time. Pass the returned nextCursor as "after"
+    // to fetch the following page.
     @GetMapping
     public ResponseEntity<GenericResponse> searchBookings(@RequestParam(required = false) String memberName,
                                                           @RequestParam(required = false) LocalDate startDate,
-                                                          @RequestParam(required = false) LocalDate endDate) {
+                                                          @RequestParam(required = false) LocalDate endDate,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer size) {
         try {
             // Call the BookingService to search bookings based on the provided criteria
-            List<BookingResponseDto> bookings = bookingService.searchBookings(memberName, startDate, endDate);
+            BookingPageDto bookings = bookingService.searchBookings(memberName, startDate, endDate, after, size);
 
-            // Return a successful response with the list of bookings
+            // Return a successful response with the page of bookings
             return ResponseEntity.ok(new GenericResponse().success("Bookings fetched successfully.", bookings));
 
         } catch (NoRecordsFoundException e) {
@@ -119,5 +264,36 @@ public class BookingController {
         }
     }
 
+    // GET request to stream every matching booking as newline-delimited JSON, selected with
+    // "Accept: application/x-ndjson". Rows are written as they are read from the database.
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamBookings(@RequestParam(required = false) String memberName,
+                                                                @RequestParam(required = false) LocalDate startDate,
+                                                                @RequestParam(required = false) LocalDate endDate) {
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(BookingResponseDto.class);
+            int[] written = {0};
+            bookingService.streamBookings(memberName, startDate, endDate, booking -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(booking));
+                    outputStream.write('\n');
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private ResponseEntity<GenericResponse> tooManyRequests(RateLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new GenericResponse().failure(e.getMessage(), "RATE_LIMITED"));
+    }
 
 }
@@ -1,16 +1,28 @@
 package com.gymmanagement.gym_management_application.controllers;
 
+import com.gymmanagement.gym_management_application.cache.ClassCatalogCache;
+import com.gymmanagement.gym_management_application.dto.AvailabilityDto;
 import com.gymmanagement.gym_management_application.dto.ClassDto;
 import com.gymmanagement.gym_management_application.dto.ClassResponseDto;
+import com.gymmanagement.gym_management_application.dto.ClassSessionDto;
 import com.gymmanagement.gym_management_application.dto.GenericResponse;
 import com.gymmanagement.gym_management_application.exception.CapacityExceededException;
+import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
 import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.service.AvailabilityService;
+import com.gymmanagement.gym_management_application.service.AvailabilityStreamService;
 import com.gymmanagement.gym_management_application.service.ClassService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,9 +30,16 @@ import java.util.List;
 public class ClassController {
 
     private final ClassService classService;
+    private final AvailabilityService availabilityService;
+    private final ClassSessionService sessionService;
+    private final AvailabilityStreamService availabilityStreamService;
 
-    public ClassController(ClassService classService) {
+    public ClassController(ClassService classService, AvailabilityService availabilityService,
+                           ClassSessionService sessionService, AvailabilityStreamService availabilityStreamService) {
         this.classService = classService;
+        this.availabilityService = availabilityService;
+        this.sessionService = sessionService;
+        this.availabilityStreamService = availabilityStreamService;
     }
 
     // Endpoint for creating a new class
@@ -57,14 +76,20 @@ public class ClassController {
         }
     }
 
+    // Endpoint for the class catalog. The response body is pre-serialized and carries a strong ETag; a request
+    // whose If-None-Match still matches it gets 304 Not Modified without a body.
     @GetMapping
-    public ResponseEntity<GenericResponse> getAllClasses() {
+    public ResponseEntity<?> getAllClasses() {
         try {
-            // Call the ClassService to get a list of all classes
-            List<ClassResponseDto> classes = classService.getAllClasses();
+            // Call the ClassService to get the current catalog snapshot
+            ClassCatalogCache.Snapshot catalog = classService.getClassCatalog();
 
-            // Return the list of classes in the response
-            return ResponseEntity.ok(new GenericResponse().success("Classes retrieved successfully.", classes));
+            // Spring compares the ETag with If-None-Match and turns a match into a 304
+            return ResponseEntity.ok()
+                    .eTag(catalog.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(catalog.body());
         } catch (Exception e) {
             // Catch any exception and return a generic error response
             return ResponseEntity.status(500).body(
@@ -72,4 +97,61 @@ public class ClassController {
             );
         }
     }
+
+    // Endpoint for the remaining seats of a class on a given date
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<GenericResponse> getAvailability(@PathVariable Long id, @RequestParam LocalDate date) {
+        try {
+            AvailabilityDto availability = availabilityService.getAvailability(id, date);
+            return ResponseEntity.ok(new GenericResponse().success("Availability retrieved successfully.", availability));
+        } catch (ClassNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new GenericResponse().failure(e.getMessage(), "CLASS_NOT_FOUND")
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_SERVER_ERROR")
+            );
+        }
+    }
+
+    // Endpoint streaming the remaining seats of a class as server-sent "availability" events, for every date or
+    // only the given one, instead of polling the endpoint above. Events carry the current availability of a slot
+    // whose seats changed; changes in quick succession arrive as one event. An unknown class or too many open
+    // streams are answered by the GlobalExceptionHandler, as an emitter cannot carry an error body.
+    @GetMapping("/{id}/availability/stream")
+    public SseEmitter streamAvailability(@PathVariable Long id, @RequestParam(required = false) LocalDate date) {
+        return availabilityStreamService.subscribe(id, date);
+    }
+
+    // Endpoint for the calendar of a class: its sessions between two dates with their booked seats, read from
+    // the materialized sessions. Without dates it lists the sessions from today to the end of the expansion window.
+    @GetMapping("/{id}/sessions")
+    public ResponseEntity<GenericResponse> getSessions(@PathVariable Long id,
+                                                       @RequestParam(required = false) LocalDate startDate,
+                                                       @RequestParam(required = false) LocalDate endDate) {
+        try {
+            List<ClassSessionDto> sessions = sessionService.getSessions(id, startDate, endDate);
+            return ResponseEntity.ok(new GenericResponse().success("Sessions retrieved successfully.", sessions));
+        } catch (ClassNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    new GenericResponse().failure(e.getMessage(), "CLASS_NOT_FOUND")
+            );
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(
+                    new GenericResponse().failure(e.getMessage(), "VALIDATION_ERROR")
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_SERVER_ERROR")
+            );
+        }
+    }
+
+    // Endpoint for the seat availability cache counters
+    @GetMapping("/availability/stats")
+    public ResponseEntity<GenericResponse> getAvailabilityCacheStats() {
+        return ResponseEntity.ok(new GenericResponse().success("Cache statistics retrieved successfully.",
+                availabilityService.getCacheStats()));
+    }
 }
@@ -0,0 +1,41 @@
+package com.gymmanagement.gym_management_application.controllers;
+
+import com.gymmanagement.gym_management_application.dto.EventPageDto;
+import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.service.OutboxService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+
+    private final OutboxService outboxService;
+
+    public EventController(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    // Endpoint for the booking and class event feed: the events after an offset, oldest first. Consumers keep
+    // the returned nextOffset and pass it as "after" on their next read; starting again from 0 replays the feed.
+    @GetMapping
+    public ResponseEntity<GenericResponse> getEvents(@RequestParam(required = false) Long after,
+                                                     @RequestParam(required = false) Integer limit) {
+        try {
+            EventPageDto page = outboxService.getEvents(after, limit);
+            return ResponseEntity.ok(new GenericResponse().success("Events retrieved successfully.", page));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(
+                    new GenericResponse().failure(e.getMessage(), "VALIDATION_ERROR")
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_SERVER_ERROR")
+            );
+        }
+    }
+}
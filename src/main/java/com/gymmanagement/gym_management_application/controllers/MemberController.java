@@ -0,0 +1,44 @@
+package com.gymmanagement.gym_management_application.controllers;
+
+import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import com.gymmanagement.gym_management_application.dto.MemberDto;
+import com.gymmanagement.gym_management_application.service.MemberService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/members")
+@Slf4j
+public class MemberController {
+
+    private final MemberService memberService;
+
+    public MemberController(MemberService memberService) {
+        this.memberService = memberService;
+    }
+
+    // GET request for the front-desk autocomplete: members whose name, or a word of it, starts with the prefix
+    @GetMapping
+    public ResponseEntity<GenericResponse> searchMembers(@RequestParam String prefix,
+                                                         @RequestParam(required = false) Integer limit) {
+        if (prefix.isBlank()) {
+            return ResponseEntity.badRequest().body(
+                    new GenericResponse().failure("Please provide a name prefix to search for.", "VALIDATION_ERROR")
+            );
+        }
+
+        try {
+            List<MemberDto> members = memberService.searchMembers(prefix, limit);
+            return ResponseEntity.ok(new GenericResponse().success("Members retrieved successfully.", members));
+        } catch (Exception e) {
+            log.error("Unexpected error: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_ERROR")
+            );
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.gymmanagement.gym_management_application.controllers;
+
+import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import com.gymmanagement.gym_management_application.dto.TimetableDayDto;
+import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.service.TimetableService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/timetable")
+public class TimetableController {
+
+    private final TimetableService timetableService;
+
+    public TimetableController(TimetableService timetableService) {
+        this.timetableService = timetableService;
+    }
+
+    // Endpoint for the timetable: the classes running each day between two dates with their remaining seats,
+    // served from memory
+    @GetMapping
+    public ResponseEntity<GenericResponse> getTimetable(@RequestParam(required = false) LocalDate from,
+                                                        @RequestParam(required = false) LocalDate to) {
+        try {
+            List<TimetableDayDto> timetable = timetableService.getTimetable(from, to);
+            return ResponseEntity.ok(new GenericResponse().success("Timetable retrieved successfully.", timetable));
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(
+                    new GenericResponse().failure(e.getMessage(), "VALIDATION_ERROR")
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(
+                    new GenericResponse().failure("An unexpected error occurred.", "INTERNAL_SERVER_ERROR")
+            );
+        }
+    }
+}
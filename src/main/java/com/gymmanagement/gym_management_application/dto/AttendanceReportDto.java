@@ -0,0 +1,17 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Utilization rows of one rollup dimension, with the last day the rollups include (null before the first run)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AttendanceReportDto<T> {
+    private LocalDate rolledUpThrough;
+    private List<T> rows;
+}
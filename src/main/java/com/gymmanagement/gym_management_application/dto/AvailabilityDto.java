@@ -0,0 +1,18 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityDto {
+    private Long classId;
+    private LocalDate participationDate;
+    private Integer capacity;
+    private Integer booked;
+    private Integer remainingSeats;
+}
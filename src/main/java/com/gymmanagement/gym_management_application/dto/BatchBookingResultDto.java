@@ -0,0 +1,26 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingResultDto {
+
+    // Position of the booking in the submitted batch
+    private int index;
+    private String status;
+    private String errorCode;
+    private String message;
+    private BookingResponseDto booking;
+
+    public static BatchBookingResultDto success(int index, BookingResponseDto booking) {
+        return new BatchBookingResultDto(index, "success", null, "Booking created successfully.", booking);
+    }
+
+    public static BatchBookingResultDto failure(int index, String errorCode, String message) {
+        return new BatchBookingResultDto(index, "failure", errorCode, message, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The cancelled booking and, when a member was waiting for the slot, the booking they were promoted to
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingCancellationDto {
+    private BookingResponseDto cancelledBooking;
+    private BookingResponseDto promotedBooking;
+}
@@ -0,0 +1,22 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPageDto {
+
+    private List<BookingResponseDto> bookings;
+
+    // Details of every class referenced by the bookings on this page, keyed by class id
+    private Map<Long, ClassResponseDto> classes;
+
+    // Id to pass as "after" for the next page, null when this is the last page
+    private Long nextCursor;
+}
@@ -1,6 +1,5 @@
 package com.gymmanagement.gym_management_application.dto;
 
-import com.gymmanagement.gym_management_application.entity.ClubClass;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,7 +14,7 @@ public class BookingResponseDto {
 
     private Long bookingId;
     private String memberName;
-    private ClubClass gymClass;
+    private Long classId;
     private LocalDate participationDate;
     private LocalTime classStartTime;
 
@@ -8,8 +8,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
@@ -38,4 +40,12 @@ public class ClassDto {
     @NotNull(message = "Capacity is required.")
     @Min(value = 1, message = "Capacity must be at least 1.")
     private Integer capacity;
+
+    // Days of the week the class runs on, e.g. [MONDAY, WEDNESDAY, FRIDAY]; every day when left out
+    private Set<DayOfWeek> daysOfWeek;
+
+    public ClassDto(String name, LocalDate startDate, LocalDate endDate, LocalTime startTime, Integer duration,
+                    Integer capacity) {
+        this(name, startDate, endDate, startTime, duration, capacity, null);
+    }
 }
@@ -4,8 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
@@ -18,4 +20,5 @@ public class ClassResponseDto {
     private LocalTime startTime;
     private Integer duration;
     private Integer capacity;
+    private Set<DayOfWeek> daysOfWeek;
 }
@@ -0,0 +1,22 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClassSessionDto {
+    private Long sessionId;
+    private Long classId;
+    private LocalDate participationDate;
+    private LocalTime startTime;
+    private Integer duration;
+    private Integer capacity;
+    private Integer booked;
+    private Integer remainingSeats;
+}
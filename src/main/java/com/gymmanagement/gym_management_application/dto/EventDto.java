@@ -0,0 +1,25 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventDto {
+    private Long offset;
+
+    // Id of the outbox row, the same when a sink is handed the event again after a failed relay
+    private Long eventId;
+    private String type;
+    private Long aggregateId;
+
+    // The event's JSON, passed through as stored
+    @JsonRawValue
+    private String payload;
+    private LocalDateTime createdAt;
+}
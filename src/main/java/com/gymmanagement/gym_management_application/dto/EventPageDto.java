@@ -0,0 +1,18 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPageDto {
+
+    private List<EventDto> events;
+
+    // Offset to pass as "after" for the next page: the last event's, or the one asked for when there was none
+    private Long nextOffset;
+}
@@ -0,0 +1,19 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimetableSessionDto {
+    private Long classId;
+    private String name;
+    private LocalTime startTime;
+    private Integer duration;
+    private Integer capacity;
+    private Integer remainingSeats;
+}
@@ -0,0 +1,16 @@
+package com.gymmanagement.gym_management_application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UtilizationDto {
+    private String bucket;
+    private long sessions;
+    private long bookedSeats;
+    private long capacitySeats;
+    private double fillRatio;
+}
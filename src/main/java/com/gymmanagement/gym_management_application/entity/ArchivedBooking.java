@@ -0,0 +1,37 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A cancelled booking moved out of the booking table by the compaction job. Keeps the booking's id;
+// the class is referenced by id only so classes can outlive the bookings archived against them.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "booking_archive")
+public class ArchivedBooking {
+    @Id
+    private Long id;
+
+    @NotNull
+    private String memberName;
+
+    @NotNull
+    @Column(name = "class_id")
+    private Long classId;
+
+    @NotNull
+    private LocalDate participationDate;
+
+    private LocalDateTime cancelledAt;
+
+    @NotNull
+    private LocalDateTime archivedAt;
+}
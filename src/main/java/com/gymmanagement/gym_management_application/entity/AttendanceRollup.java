@@ -0,0 +1,47 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+// Running totals of the class sessions held so far in one bucket of a dimension: how many sessions there were,
+// the seats they offered and the seats booked on them. The rollup job adds each day to the totals once it is
+// over, so utilization is read from a handful of rows instead of the sessions or bookings behind them.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_rollup_bucket", columnNames = {"dimension", "bucket"})
+})
+public class AttendanceRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private RollupDimension dimension;
+
+    @NotNull
+    private Long bucket;
+
+    @NotNull
+    private Long sessions;
+
+    @NotNull
+    private Long bookedSeats;
+
+    @NotNull
+    private Long capacitySeats;
+
+    public AttendanceRollup(RollupDimension dimension, Long bucket) {
+        this(null, dimension, bucket, 0L, 0L, 0L);
+    }
+}
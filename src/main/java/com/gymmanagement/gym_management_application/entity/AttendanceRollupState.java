@@ -0,0 +1,24 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// The single row recording the last day added to the attendance rollups. The rollup job locks it, so only one
+// run folds days at a time, and moves it in the same transaction as the totals it adds.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class AttendanceRollupState {
+    public static final Integer ID = 1;
+
+    @Id
+    private Integer id;
+
+    private LocalDate rolledUpThrough;
+}
@@ -4,27 +4,87 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(uniqueConstraints = {
+        // A retried request carrying the same Idempotency-Key finds the booking it already created
+        @UniqueConstraint(name = "uk_booking_idempotency_key", columnNames = "idempotency_key"),
+        // A member holds at most one active booking per class and day; cancelled rows have no active member id
+        @UniqueConstraint(name = "uk_booking_member_slot",
+                columnNames = {"active_member_id", "class_id", "participation_date"})
+}, indexes = {
+        // Serves the per-class, per-day booking counts
+        // Includes the status so counting a slot's active bookings is answered from the index alone
+        @Index(name = "idx_booking_class_date", columnList = "class_id, participation_date, status"),
+        // Serve the member and member-plus-date searches; rows of one member come back in id order
+        @Index(name = "idx_booking_member_date", columnList = "member_id, participation_date"),
+        // Serves the date-range search
+        @Index(name = "idx_booking_date", columnList = "participation_date"),
+        // Lets the compaction job find cancelled bookings without scanning the table
+        @Index(name = "idx_booking_status", columnList = "status")
+})
+// Cancelled bookings are soft-deleted: every entity load and query only sees active ones
+@SQLRestriction("status = 'ACTIVE'")
 public class Booking {
+    // Pooled sequence so ids are handed out in blocks and inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
 
-    @NotNull
-    private String memberName;
+    // Lazy like the class; Member sits in the second-level cache
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "member_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Member member;
 
-    @ManyToOne
+    // Lazy so loading bookings never pulls classes in one row at a time; queries that need the
+    // class fetch it with an entity graph, and ClubClass itself sits in the second-level cache
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "class_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private ClubClass clazz;
 
     @NotNull
     private LocalDate participationDate;
+
+    // The class session booked; class and participation date are kept alongside it for the searches
+    @NotNull
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    @ColumnDefault("'ACTIVE'")
+    private BookingStatus status = BookingStatus.ACTIVE;
+
+    private LocalDateTime cancelledAt;
+
+    // Client-supplied key of the request that created the booking, null when the client sent none
+    @Column(length = 100)
+    private String idempotencyKey;
+
+    // The member id while the booking is active, null once cancelled. Computed by the database, so the unique
+    // slot constraint only applies to active bookings.
+    @Column(name = "active_member_id", insertable = false, updatable = false,
+            columnDefinition = "bigint generated always as (case when status = 'ACTIVE' then member_id end)")
+    private Long activeMemberId;
 }
@@ -0,0 +1,8 @@
+package com.gymmanagement.gym_management_application.entity;
+
+// Lifecycle of a booking. Cancelled bookings stay in the booking table, hidden from queries, until the
+// compaction job moves them to the archive.
+public enum BookingStatus {
+    ACTIVE,
+    CANCELLED
+}
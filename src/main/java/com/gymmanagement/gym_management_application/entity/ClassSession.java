@@ -0,0 +1,42 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One occurrence of a class on a participation date, materialized ahead of time by the session expansion job.
+// Holds the session's capacity and running count of confirmed bookings, so a capacity check is an update of
+// one row by primary key. The row is the unit of locking for capacity checks, so bookings for different
+// sessions never contend with each other.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_class_session_slot", columnNames = {"class_id", "participation_date"})
+}, indexes = {
+        // Serves the reads of every class's sessions over a date range: the timetable and the attendance rollups
+        @Index(name = "idx_class_session_date", columnList = "participation_date")
+})
+public class ClassSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "class_id")
+    private Long classId;
+
+    @NotNull
+    private LocalDate participationDate;
+
+    @NotNull
+    private Integer capacity;
+
+    @NotNull
+    private Integer booked;
+}
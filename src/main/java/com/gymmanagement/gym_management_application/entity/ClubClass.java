@@ -1,15 +1,21 @@
 package com.gymmanagement.gym_management_application.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Duration;
 import java.time.LocalDate;
@@ -19,6 +25,13 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        // Serves the overlap queries (start_date < ? and end_date > ?): only classes ending after the new
+        // one starts are scanned, which excludes the whole history of finished classes
+        @Index(name = "idx_club_class_end_start", columnList = "end_date, start_date")
+})
 public class ClubClass {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -45,6 +58,14 @@ public class ClubClass {
     @Min(value = 1, message = "Capacity must be at least 1")
     private Integer capacity;
 
+    // Days of the week the class runs on between its start and end dates, as a WeeklyRecurrence mask
+    @NotNull
+    @ColumnDefault("127")
+    private Integer daysOfWeek = WeeklyRecurrence.EVERY_DAY;
+
+    // Last date the session expansion job has materialized sessions up to, null before its first run
+    private LocalDate sessionsExpandedThrough;
+
     public ClubClass(long l, String yoga, LocalTime of) {
     }
 }
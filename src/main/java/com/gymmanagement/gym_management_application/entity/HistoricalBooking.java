@@ -0,0 +1,54 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// An active booking whose participation date has passed, moved out of the booking table by the archival job.
+// Keeps the booking's id. Rows are partitioned by the month of their participation date: archiveMonth leads
+// every index, so a date-bounded read only touches the index ranges of the months it covers.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "booking_history", indexes = {
+        // Serves the date-range searches, one month partition at a time
+        @Index(name = "idx_booking_history_month_date", columnList = "archive_month, participation_date"),
+        // Serves the member and member-plus-date searches
+        @Index(name = "idx_booking_history_member", columnList = "member_id, archive_month, participation_date")
+})
+public class HistoricalBooking {
+    @Id
+    private Long id;
+
+    @NotNull
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @NotNull
+    @Column(name = "class_id")
+    private Long classId;
+
+    @NotNull
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @NotNull
+    private LocalDate participationDate;
+
+    // Month partition of the participation date, as yyyymm
+    @NotNull
+    private Integer archiveMonth;
+
+    @NotNull
+    private LocalDateTime archivedAt;
+
+    public static int monthOf(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+}
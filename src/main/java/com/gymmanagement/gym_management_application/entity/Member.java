@@ -0,0 +1,33 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+// A gym member, referenced by id from bookings and waitlist entries. The name is what members book
+// under and is unique, so a booking made under a known name is attributed to the existing member.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(uniqueConstraints = {
+        // Resolves a name to its member with one index seek
+        @UniqueConstraint(name = "uk_member_name", columnNames = "name")
+})
+public class Member {
+    // Pooled sequence so members created by a batch of bookings are inserted together
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", sequenceName = "member_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(length = 100)
+    private String name;
+}
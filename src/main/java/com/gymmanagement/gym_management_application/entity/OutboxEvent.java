@@ -0,0 +1,48 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// An event appended by the write it describes, in the same transaction. The relay gives it the next offset of
+// the event feed in the order it drains the outbox, so an offset is only assigned once the write committed and
+// a reader going by offset never skips an event that commits late.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = {
+        // Serves the feed reads by offset, and the relay's search for events without one
+        @UniqueConstraint(name = "uk_outbox_event_offset", columnNames = "event_offset")
+})
+public class OutboxEvent {
+    // Pooled sequence so the events of a batch of bookings are inserted in JDBC batches with them
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(length = 32)
+    private String eventType;
+
+    @NotNull
+    private Long aggregateId;
+
+    @NotNull
+    @Column(length = 2000)
+    private String payload;
+
+    @NotNull
+    private LocalDateTime createdAt;
+
+    // Position in the event feed, null until relayed
+    @Column(name = "event_offset")
+    private Long eventOffset;
+
+    private LocalDateTime relayedAt;
+}
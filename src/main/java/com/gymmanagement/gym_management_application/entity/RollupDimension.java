@@ -0,0 +1,9 @@
+package com.gymmanagement.gym_management_application.entity;
+
+// What an attendance rollup row is grouped by, and so what its bucket holds: the class id, the ISO day of the
+// week (1 for Monday to 7 for Sunday) or the hour of the day the class starts
+public enum RollupDimension {
+    CLASS,
+    WEEKDAY,
+    HOUR
+}
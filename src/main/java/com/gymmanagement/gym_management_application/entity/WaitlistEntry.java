@@ -0,0 +1,43 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A member queued for a full class on one participation date. Entries of a slot are served
+// first in, first out by id; a member holds at most one place per slot, so retrying a full
+// booking finds the existing entry instead of queueing again.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_waitlist_member_slot", columnNames = {"member_id", "class_id", "participation_date"})
+}, indexes = {
+        // Finds the head of a slot's queue and counts the entries ahead of a member
+        @Index(name = "idx_waitlist_slot", columnList = "class_id, participation_date, id")
+})
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @NotNull
+    @Column(name = "class_id")
+    private Long classId;
+
+    @NotNull
+    private LocalDate participationDate;
+
+    @NotNull
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,54 @@
+package com.gymmanagement.gym_management_application.entity;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Days of the week a class runs on, stored on ClubClass as a bit mask: bit 0 is Monday, bit 6 Sunday
+public final class WeeklyRecurrence {
+
+    public static final int EVERY_DAY = 0b111_1111;
+
+    private WeeklyRecurrence() {
+    }
+
+    // Mask of the given days, or every day when none are given
+    public static int toMask(Collection<DayOfWeek> days) {
+        if (days == null || days.isEmpty()) {
+            return EVERY_DAY;
+        }
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= bit(day);
+        }
+        return mask;
+    }
+
+    // Days of the mask, Monday first
+    public static Set<DayOfWeek> toDays(int mask) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((mask & bit(day)) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    // True when the class runs on the date's day of the week
+    public static boolean includes(int mask, LocalDate date) {
+        return (mask & bit(date.getDayOfWeek())) != 0;
+    }
+
+    // Mask of the days the given number of days after those of the mask, e.g. Monday becomes Tuesday for one day
+    public static int shift(int mask, int days) {
+        int shift = days % 7;
+        return ((mask << shift) | (mask >>> (7 - shift))) & EVERY_DAY;
+    }
+
+    private static int bit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+}
@@ -0,0 +1,38 @@
+package com.gymmanagement.gym_management_application.events;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process bus of the slots whose seat availability changed. Publishing only marks the slot as changed, so a
+// burst of bookings for one slot between two drains is a single event, and a publisher never waits on a
+// subscriber. The subscribers read the slot's current availability when they drain it.
+@Component
+public class AvailabilityEventBus {
+
+    private final Set<Slot> changed = ConcurrentHashMap.newKeySet();
+
+    // Mark the slot as changed; called after the write that changed it committed
+    public void publish(Long classId, LocalDate participationDate) {
+        changed.add(new Slot(classId, participationDate));
+    }
+
+    // Take the slots changed since the last drain. A slot published while draining is either taken now or
+    // left for the next drain, never lost.
+    public List<Slot> drain() {
+        List<Slot> slots = new ArrayList<>();
+        for (Iterator<Slot> iterator = changed.iterator(); iterator.hasNext(); ) {
+            slots.add(iterator.next());
+            iterator.remove();
+        }
+        return slots;
+    }
+
+    public record Slot(Long classId, LocalDate participationDate) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.gymmanagement.gym_management_application.events;
+
+import java.time.LocalDate;
+
+// A booking was cancelled; its seat went to the promoted booking when a member was waiting
+public record BookingCancelled(Long bookingId, Long memberId, Long classId, LocalDate participationDate,
+                               Long promotedBookingId) implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return bookingId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.gymmanagement.gym_management_application.events;
+
+import com.gymmanagement.gym_management_application.entity.Booking;
+
+import java.time.LocalDate;
+
+// A booking was made: booked directly, by a batch, by the write-behind writer or for a member promoted from
+// the waitlist
+public record BookingCreated(Long bookingId, Long memberId, Long classId, LocalDate participationDate,
+                             Long sessionId) implements DomainEvent {
+
+    // Only reads the ids of the member and class, so lazy references are not loaded
+    public static BookingCreated of(Booking booking) {
+        return new BookingCreated(booking.getId(), booking.getMember().getId(), booking.getClazz().getId(),
+                booking.getParticipationDate(), booking.getSessionId());
+    }
+
+    @Override
+    public Long aggregateId() {
+        return bookingId;
+    }
+}
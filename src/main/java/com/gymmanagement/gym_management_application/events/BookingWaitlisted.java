@@ -0,0 +1,13 @@
+package com.gymmanagement.gym_management_application.events;
+
+import java.time.LocalDate;
+
+// A member was queued for a full slot
+public record BookingWaitlisted(Long waitlistId, Long memberId, Long classId, LocalDate participationDate)
+        implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return waitlistId;
+    }
+}
@@ -0,0 +1,24 @@
+package com.gymmanagement.gym_management_application.events;
+
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.WeeklyRecurrence;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+public record ClassCreated(Long classId, String name, LocalDate startDate, LocalDate endDate, LocalTime startTime,
+                           Integer duration, Integer capacity, Set<DayOfWeek> daysOfWeek) implements DomainEvent {
+
+    public static ClassCreated of(ClubClass clazz) {
+        return new ClassCreated(clazz.getId(), clazz.getName(), clazz.getStartDate(), clazz.getEndDate(),
+                clazz.getStartTime(), clazz.getDuration(), clazz.getCapacity(),
+                WeeklyRecurrence.toDays(clazz.getDaysOfWeek()));
+    }
+
+    @Override
+    public Long aggregateId() {
+        return classId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.gymmanagement.gym_management_application.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// A change appended to the outbox in the transaction that made it. The record is the event's JSON payload and
+// its simple name the event type, so consumers see BookingCreated, ClassCreated and so on.
+public interface DomainEvent {
+
+    // Id of the class, booking or waitlist entry the event is about
+    @JsonIgnore
+    Long aggregateId();
+
+    @JsonIgnore
+    default String type() {
+        return getClass().getSimpleName();
+    }
+}
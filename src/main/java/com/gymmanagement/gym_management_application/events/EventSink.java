@@ -0,0 +1,14 @@
+package com.gymmanagement.gym_management_application.events;
+
+import com.gymmanagement.gym_management_application.dto.EventDto;
+
+import java.io.IOException;
+import java.util.List;
+
+// Destination the outbox relay hands each batch of events to, in offset order. Called inside the relay's
+// transaction: when it throws, the batch keeps no offsets and is handed over again on the next run, so a sink
+// can see an event twice and should go by its event id.
+public interface EventSink {
+
+    void publish(List<EventDto> events) throws IOException;
+}
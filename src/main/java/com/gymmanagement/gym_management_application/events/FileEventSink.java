@@ -0,0 +1,54 @@
+package com.gymmanagement.gym_management_application.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmanagement.gym_management_application.dto.EventDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Sink appending each event as a line of JSON to a local file, on disk before the relay commits the batch
+@Component
+@ConditionalOnProperty(name = "gym.outbox.sink", havingValue = "file")
+public class FileEventSink implements EventSink {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public FileEventSink(ObjectMapper objectMapper,
+                         @Value("${gym.outbox.file-sink.path:./data/events.log}") Path path) throws IOException {
+        this.objectMapper = objectMapper;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<EventDto> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (EventDto event : events) {
+            lines.append(objectMapper.writeValueAsString(event)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+}
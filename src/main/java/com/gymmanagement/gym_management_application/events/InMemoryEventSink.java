@@ -0,0 +1,39 @@
+package com.gymmanagement.gym_management_application.events;
+
+import com.gymmanagement.gym_management_application.dto.EventDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Stand-in sink keeping the most recent events in memory, for development and tests
+@Component
+@ConditionalOnProperty(name = "gym.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryEventSink implements EventSink {
+
+    private final int capacity;
+    private final Deque<EventDto> events = new ArrayDeque<>();
+
+    public InMemoryEventSink(@Value("${gym.outbox.memory-sink.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<EventDto> batch) {
+        for (EventDto event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    // Events held, oldest first
+    public synchronized List<EventDto> getEvents() {
+        return new ArrayList<>(events);
+    }
+}
@@ -0,0 +1,9 @@
+package com.gymmanagement.gym_management_application.exception;
+
+public class BookingNotFoundException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public BookingNotFoundException(String message) {
+        super(message);
+    }
+}
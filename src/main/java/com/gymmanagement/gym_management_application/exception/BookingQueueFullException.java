@@ -0,0 +1,9 @@
+package com.gymmanagement.gym_management_application.exception;
+
+public class BookingQueueFullException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public BookingQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.gymmanagement.gym_management_application.exception;
+
+import com.gymmanagement.gym_management_application.dto.WaitlistEntryDto;
+
+// Thrown by BookingService.createBooking when the class was full and the member was queued on its waitlist instead
+public class BookingWaitlistedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient WaitlistEntryDto waitlistEntry;
+
+    public BookingWaitlistedException(String message, WaitlistEntryDto waitlistEntry) {
+        super(message);
+        this.waitlistEntry = waitlistEntry;
+    }
+
+    public WaitlistEntryDto getWaitlistEntry() {
+        return waitlistEntry;
+    }
+}
@@ -1,7 +1,9 @@
 package com.gymmanagement.gym_management_application.exception;
 
 import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -23,6 +25,44 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    @ExceptionHandler(DuplicateBookingException.class)
+    public ResponseEntity<GenericResponse> handleDuplicateBookingException(DuplicateBookingException ex) {
+        GenericResponse response = new GenericResponse();
+        response.failure(ex.getMessage(), "DUPLICATE_BOOKING");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(BookingWaitlistedException.class)
+    public ResponseEntity<GenericResponse> handleBookingWaitlistedException(BookingWaitlistedException ex) {
+        GenericResponse response = new GenericResponse();
+        response.success(ex.getMessage(), ex.getWaitlistEntry());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @ExceptionHandler(BookingQueueFullException.class)
+    public ResponseEntity<GenericResponse> handleBookingQueueFullException(BookingQueueFullException ex) {
+        GenericResponse response = new GenericResponse();
+        response.failure(ex.getMessage(), "SERVICE_BUSY");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<GenericResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
+        GenericResponse response = new GenericResponse();
+        response.failure(ex.getMessage(), "RATE_LIMITED");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds())).body(response);
+    }
+
+    // The content type is set so the body is written even to a client that only accepts an event stream
+    @ExceptionHandler(SubscriberLimitExceededException.class)
+    public ResponseEntity<GenericResponse> handleSubscriberLimitExceededException(SubscriberLimitExceededException ex) {
+        GenericResponse response = new GenericResponse();
+        response.failure(ex.getMessage(), "SERVICE_BUSY");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5")
+                .contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
     // Handle NoRecordsFoundException globally
     @ExceptionHandler(NoRecordsFoundException.class)
     public ResponseEntity<GenericResponse> handleNoRecordsFoundException(NoRecordsFoundException e) {
@@ -37,6 +77,14 @@ public class GlobalExceptionHandler {
     public ResponseEntity<GenericResponse> handleClassNotFound(ClassNotFoundException ex) {
         GenericResponse response = new GenericResponse()
                 .failure(ex.getMessage(), "CLASS_NOT_FOUND");
+        // Also answers availability stream requests, which may only accept an event stream
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+
+    @ExceptionHandler(BookingNotFoundException.class)
+    public ResponseEntity<GenericResponse> handleBookingNotFound(BookingNotFoundException ex) {
+        GenericResponse response = new GenericResponse()
+                .failure(ex.getMessage(), "BOOKING_NOT_FOUND");
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
 
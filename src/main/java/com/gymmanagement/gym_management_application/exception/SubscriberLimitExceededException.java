@@ -0,0 +1,9 @@
+package com.gymmanagement.gym_management_application.exception;
+
+public class SubscriberLimitExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SubscriberLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import com.gymmanagement.gym_management_application.entity.ArchivedBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    // Copy the given cancelled bookings into the archive in one statement
+    @Modifying
+    @Query(value = "insert into booking_archive (id, member_name, class_id, participation_date, cancelled_at, archived_at) " +
+            "select b.id, m.name, b.class_id, b.participation_date, b.cancelled_at, :archivedAt from booking b " +
+            "join member m on m.id = b.member_id where b.id in (:ids) and b.status = 'CANCELLED'", nativeQuery = true)
+    int archiveCancelled(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,34 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import com.gymmanagement.gym_management_application.entity.AttendanceRollup;
+import com.gymmanagement.gym_management_application.entity.RollupDimension;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceRollupRepository extends JpaRepository<AttendanceRollup, Long> {
+    List<AttendanceRollup> findByDimensionOrderByBucket(RollupDimension dimension);
+
+    Optional<AttendanceRollup> findByDimensionAndBucket(RollupDimension dimension, Long bucket);
+
+    // Gives a cancelled seat back in the class's, weekday's and hour's totals, only when its day has already
+    // been rolled up; a day not rolled up yet picks the lower count up from its session. Returns the rows updated.
+    @Modifying
+    @Query("update AttendanceRollup r set r.bookedSeats = r.bookedSeats - 1 " +
+            "where ((r.dimension = com.gymmanagement.gym_management_application.entity.RollupDimension.CLASS " +
+            "and r.bucket = :classId) " +
+            "or (r.dimension = com.gymmanagement.gym_management_application.entity.RollupDimension.WEEKDAY " +
+            "and r.bucket = :weekday) " +
+            "or (r.dimension = com.gymmanagement.gym_management_application.entity.RollupDimension.HOUR " +
+            "and r.bucket = :hour)) " +
+            "and exists (select 1 from AttendanceRollupState s where s.rolledUpThrough >= :participationDate)")
+    int releaseSeat(@Param("classId") Long classId, @Param("weekday") Long weekday, @Param("hour") Long hour,
+                    @Param("participationDate") LocalDate participationDate);
+}
@@ -0,0 +1,19 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import com.gymmanagement.gym_management_application.entity.AttendanceRollupState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AttendanceRollupStateRepository extends JpaRepository<AttendanceRollupState, Integer> {
+    // Loads the state row and holds a write lock on it until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AttendanceRollupState s where s.id = :id")
+    Optional<AttendanceRollupState> findForUpdate(@Param("id") Integer id);
+}
@@ -1,17 +1,126 @@
 package com.gymmanagement.gym_management_application.repository;
 
 import com.gymmanagement.gym_management_application.entity.Booking;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByMemberName(String memberName);
 
+    String VIEW_SELECT = "select new com.gymmanagement.gym_management_application.repository.BookingView(" +
+            "b.id, m.name, c.id, b.participationDate, c.startTime) from Booking b join b.clazz c join b.member m ";
+
+    // Entity finders fetch the class and member in the same statement rather than once per booking
+    @EntityGraph(attributePaths = {"clazz", "member"})
+    List<Booking> findByMemberId(Long memberId);
+
+    @EntityGraph(attributePaths = {"clazz", "member"})
     List<Booking> findByParticipationDateBetween(LocalDate startDate, LocalDate endDate);
 
-    List<Booking> findByMemberNameAndParticipationDateBetween(String memberName, LocalDate startDate, LocalDate endDate);
+    @EntityGraph(attributePaths = {"clazz", "member"})
+    List<Booking> findByMemberIdAndParticipationDateBetween(Long memberId, LocalDate startDate, LocalDate endDate);
+
+    // Keyset pagination over lean projections: the next page starts after the last id of the previous one,
+    // walking the primary key, and only the columns of BookingView are selected
+    @Query(VIEW_SELECT + "where b.id > :afterId order by b.id")
+    List<BookingView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "where b.member.id = :memberId and b.id > :afterId order by b.id")
+    List<BookingView> findViewsByMemberIdAfter(@Param("memberId") Long memberId,
+                                               @Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "where b.participationDate between :startDate and :endDate and b.id > :afterId order by b.id")
+    List<BookingView> findViewsByParticipationDateBetweenAfter(@Param("startDate") LocalDate startDate,
+                                                               @Param("endDate") LocalDate endDate,
+                                                               @Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "where b.member.id = :memberId and b.participationDate between :startDate and :endDate " +
+            "and b.id > :afterId order by b.id")
+    List<BookingView> findViewsByMemberIdAndParticipationDateBetweenAfter(@Param("memberId") Long memberId,
+                                                                          @Param("startDate") LocalDate startDate,
+                                                                          @Param("endDate") LocalDate endDate,
+                                                                          @Param("afterId") Long afterId,
+                                                                          Limit limit);
+
+    // Cursor over all matching bookings for streaming responses, null filters are ignored.
+    // Must be consumed inside a transaction and closed afterwards.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW_SELECT +
+            "where (:memberId is null or b.member.id = :memberId) " +
+            "and (:startDate is null or b.participationDate >= :startDate) " +
+            "and (:endDate is null or b.participationDate <= :endDate) " +
+            "order by b.id")
+    Stream<BookingView> streamViewsByCriteria(@Param("memberId") Long memberId,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    // The active booking with its member, for mapping it after the transaction
+    @EntityGraph(attributePaths = "member")
+    Optional<Booking> findWithMemberById(Long id);
+
+    // Count of active bookings for a single class on a single day, answered from idx_booking_class_date
+    long countByClazzIdAndParticipationDate(Long classId, LocalDate participationDate);
+
+    // Whether the member holds an active booking for the class on the day, answered from uk_booking_member_slot
+    boolean existsByMemberIdAndClazzIdAndParticipationDate(Long memberId, Long classId, LocalDate participationDate);
+
+    // Cursor over the member slots of every active booking, for loading the duplicate booking filter.
+    // Must be consumed inside a transaction and closed afterwards.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.gymmanagement.gym_management_application.repository.MemberSlot(" +
+            "b.member.id, b.clazz.id, b.participationDate) from Booking b")
+    Stream<MemberSlot> streamMemberSlots();
+
+    // The active booking created by the request carrying the given Idempotency-Key
+    @EntityGraph(attributePaths = {"clazz", "member"})
+    Optional<Booking> findByIdempotencyKey(String idempotencyKey);
+
+    // Soft-delete an active booking. Returns 0 when it is already cancelled, so of two concurrent
+    // cancellations only one goes on to release the seat. The idempotency key is released with the seat.
+    @Modifying
+    @Query("update Booking b set b.status = com.gymmanagement.gym_management_application.entity.BookingStatus.CANCELLED, " +
+            "b.cancelledAt = :cancelledAt, b.idempotencyKey = null " +
+            "where b.id = :id and b.status = com.gymmanagement.gym_management_application.entity.BookingStatus.ACTIVE")
+    int cancel(@Param("id") Long id, @Param("cancelledAt") LocalDateTime cancelledAt);
+
+    // Oldest cancelled bookings still in the booking table. Native, since entity queries only see active bookings.
+    @Query(value = "select id from booking where status = 'CANCELLED' order by id limit :limit", nativeQuery = true)
+    List<Long> findCancelledIds(@Param("limit") int limit);
+
+    // Which of the given ids are in the booking table, whatever their status
+    @Query(value = "select id from booking where id in (:ids)", nativeQuery = true)
+    List<Long> findExistingIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "delete from booking where id in (:ids) and status = 'CANCELLED'", nativeQuery = true)
+    int deleteCancelled(@Param("ids") List<Long> ids);
+
+    // Oldest active bookings for dates before the given one, locked so a cancellation cannot slip in between
+    // copying them to the history and deleting them here
+    @Query(value = "select id from booking where status = 'ACTIVE' and participation_date < :before " +
+            "order by participation_date, id limit :limit for update", nativeQuery = true)
+    List<Long> findActiveIdsBeforeForUpdate(@Param("before") LocalDate before, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "delete from booking where id in (:ids) and status = 'ACTIVE'", nativeQuery = true)
+    int deleteActive(@Param("ids") List<Long> ids);
+
+    // Earliest participation date of an active booking
+    @Query("select min(b.participationDate) from Booking b")
+    Optional<LocalDate> findFirstDate();
 }
@@ -0,0 +1,10 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Read-only projection of a booking holding only the columns search responses need.
+// Selected through a constructor expression, so no managed Booking or ClubClass entities are created.
+public record BookingView(Long bookingId, String memberName, Long classId, LocalDate participationDate,
+                          LocalTime classStartTime) {
+}
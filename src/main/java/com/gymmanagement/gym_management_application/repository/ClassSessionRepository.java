@@ -0,0 +1,70 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import com.gymmanagement.gym_management_application.entity.ClassSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Repository
+public interface ClassSessionRepository extends JpaRepository<ClassSession, Long> {
+    Optional<ClassSession> findByClassIdAndParticipationDate(Long classId, LocalDate participationDate);
+
+    // Sessions of a class in a date range, in date order, read from the uk_class_session_slot index
+    List<ClassSession> findByClassIdAndParticipationDateBetweenOrderByParticipationDate(
+            Long classId, LocalDate startDate, LocalDate endDate);
+
+    @Query("select s.participationDate from ClassSession s " +
+            "where s.classId = :classId and s.participationDate between :startDate and :endDate")
+    Set<LocalDate> findDatesByClassIdBetween(@Param("classId") Long classId,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    // Sessions of every class in a date range with their class details, for the timetable
+    @Query("select new com.gymmanagement.gym_management_application.repository.SessionView(" +
+            "s.classId, c.name, s.participationDate, c.startTime, c.duration, s.capacity, s.booked) " +
+            "from ClassSession s join ClubClass c on c.id = s.classId " +
+            "where s.participationDate between :startDate and :endDate")
+    List<SessionView> findViewsBetween(@Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+
+    // Sessions of one class in a date range with its details, for the timetable
+    @Query("select new com.gymmanagement.gym_management_application.repository.SessionView(" +
+            "s.classId, c.name, s.participationDate, c.startTime, c.duration, s.capacity, s.booked) " +
+            "from ClassSession s join ClubClass c on c.id = s.classId " +
+            "where s.classId = :classId and s.participationDate between :startDate and :endDate")
+    List<SessionView> findViewsByClassIdBetween(@Param("classId") Long classId,
+                                                @Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate);
+
+    // Loads the session's row and holds a write lock on it until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ClassSession s where s.id = :id")
+    Optional<ClassSession> findForUpdate(@Param("id") Long id);
+
+    // Loads every session in a date range, read from idx_class_session_date, and holds write locks on them
+    // until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ClassSession s where s.participationDate between :startDate and :endDate")
+    List<ClassSession> findForUpdateBetween(@Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+
+    @Query("select min(s.participationDate) from ClassSession s")
+    Optional<LocalDate> findFirstDate();
+
+    @Query("select s.booked from ClassSession s where s.id = :id")
+    int findBookedById(@Param("id") Long id);
+
+    // Takes one seat only while the session is below capacity; returns the number of rows updated (0 or 1)
+    @Modifying
+    @Query("update ClassSession s set s.booked = s.booked + 1 where s.id = :id and s.booked < s.capacity")
+    int incrementIfBelowCapacity(@Param("id") Long id);
+}
@@ -2,13 +2,23 @@ package com.gymmanagement.gym_management_application.repository;
 
 import com.gymmanagement.gym_management_application.entity.ClubClass;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Repository
 public interface ClubClassRepository extends JpaRepository<ClubClass, Long> {
     boolean existsByStartDateBeforeAndEndDateAfter(LocalDate endDate, LocalDate startDate);
 
     ClubClass findFirstByStartDateBeforeAndEndDateAfter(LocalDate endDate, LocalDate startDate);
+
+    List<ClubClass> findByStartDateBeforeAndEndDateAfter(LocalDate endDate, LocalDate startDate);
+
+    // Classes still running whose sessions are not yet materialized up to the horizon (or their end date)
+    @Query("select c from ClubClass c where c.endDate >= :today and (c.sessionsExpandedThrough is null " +
+            "or (c.sessionsExpandedThrough < c.endDate and c.sessionsExpandedThrough < :horizon))")
+    List<ClubClass> findClassesToExpand(@Param("today") LocalDate today, @Param("horizon") LocalDate horizon);
 }
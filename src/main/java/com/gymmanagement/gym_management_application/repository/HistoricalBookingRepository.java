@@ -0,0 +1,83 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import com.gymmanagement.gym_management_application.entity.HistoricalBooking;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface HistoricalBookingRepository extends JpaRepository<HistoricalBooking, Long> {
+
+    String VIEW_SELECT = "select new com.gymmanagement.gym_management_application.repository.BookingView(" +
+            "h.id, m.name, c.id, h.participationDate, c.startTime) from HistoricalBooking h " +
+            "join ClubClass c on c.id = h.classId join Member m on m.id = h.memberId ";
+
+    // Copy the given active bookings into their month partitions in one statement
+    @Modifying
+    @Query(value = "insert into booking_history " +
+            "(id, member_id, class_id, session_id, participation_date, archive_month, archived_at) " +
+            "select b.id, b.member_id, b.class_id, b.session_id, b.participation_date, " +
+            "extract(year from b.participation_date) * 100 + extract(month from b.participation_date), :archivedAt " +
+            "from booking b where b.id in (:ids) and b.status = 'ACTIVE'", nativeQuery = true)
+    int archiveActive(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // Latest participation date archived, read from the newest month partition
+    @Query("select max(h.participationDate) from HistoricalBooking h " +
+            "where h.archiveMonth = (select max(l.archiveMonth) from HistoricalBooking l)")
+    Optional<LocalDate> findLastDate();
+
+    // Keyset pages like the ones of BookingRepository. The date-bounded ones name the month partitions the
+    // range covers, so only those index ranges are read.
+    @Query(VIEW_SELECT + "where h.id > :afterId order by h.id")
+    List<BookingView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "where h.memberId = :memberId and h.id > :afterId order by h.id")
+    List<BookingView> findViewsByMemberIdAfter(@Param("memberId") Long memberId,
+                                               @Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW_SELECT + "where h.archiveMonth between :fromMonth and :toMonth " +
+            "and h.participationDate between :startDate and :endDate and h.id > :afterId order by h.id")
+    List<BookingView> findViewsByMonthsAndParticipationDateBetweenAfter(@Param("fromMonth") int fromMonth,
+                                                                        @Param("toMonth") int toMonth,
+                                                                        @Param("startDate") LocalDate startDate,
+                                                                        @Param("endDate") LocalDate endDate,
+                                                                        @Param("afterId") Long afterId,
+                                                                        Limit limit);
+
+    @Query(VIEW_SELECT + "where h.memberId = :memberId and h.archiveMonth between :fromMonth and :toMonth " +
+            "and h.participationDate between :startDate and :endDate and h.id > :afterId order by h.id")
+    List<BookingView> findViewsByMemberIdAndMonthsAndParticipationDateBetweenAfter(@Param("memberId") Long memberId,
+                                                                                   @Param("fromMonth") int fromMonth,
+                                                                                   @Param("toMonth") int toMonth,
+                                                                                   @Param("startDate") LocalDate startDate,
+                                                                                   @Param("endDate") LocalDate endDate,
+                                                                                   @Param("afterId") Long afterId,
+                                                                                   Limit limit);
+
+    // Cursor over all matching archived bookings for streaming responses, null filters are ignored.
+    // Must be consumed inside a transaction and closed afterwards.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW_SELECT +
+            "where (:memberId is null or h.memberId = :memberId) " +
+            "and (:fromMonth is null or h.archiveMonth between :fromMonth and :toMonth) " +
+            "and (:startDate is null or h.participationDate between :startDate and :endDate) " +
+            "order by h.id")
+    Stream<BookingView> streamViewsByCriteria(@Param("memberId") Long memberId,
+                                              @Param("fromMonth") Integer fromMonth,
+                                              @Param("toMonth") Integer toMonth,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,29 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import com.gymmanagement.gym_management_application.dto.MemberDto;
+import com.gymmanagement.gym_management_application.entity.Member;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MemberRepository extends JpaRepository<Member, Long> {
+
+    // Exact name lookup, answered from uk_member_name
+    Optional<Member> findByName(String name);
+
+    // Every member's id and name, for building the in-memory name index without managing entities
+    @Query("select new com.gymmanagement.gym_management_application.dto.MemberDto(m.id, m.name) from Member m")
+    List<MemberDto> findAllSummaries();
+
+    // Case-insensitive prefix search, only used until the in-memory name index is loaded. The prefix must have
+    // its like wildcards escaped with a backslash.
+    @Query("select new com.gymmanagement.gym_management_application.dto.MemberDto(m.id, m.name) from Member m " +
+            "where lower(m.name) like concat(:prefix, '%') escape '\\' order by lower(m.name)")
+    List<MemberDto> findSummariesByNamePrefix(@Param("prefix") String prefix, Limit limit);
+}
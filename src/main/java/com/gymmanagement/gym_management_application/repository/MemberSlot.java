@@ -0,0 +1,7 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import java.time.LocalDate;
+
+// A member together with a class and participation date: the key a member can hold one active booking for
+public record MemberSlot(Long memberId, Long classId, LocalDate participationDate) {
+}
@@ -0,0 +1,28 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import com.gymmanagement.gym_management_application.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // Oldest events not relayed yet, locked so a second relay cannot give them offsets as well
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OutboxEvent e where e.eventOffset is null order by e.id")
+    List<OutboxEvent> findUnrelayedForUpdate(Pageable pageable);
+
+    @Query("select max(e.eventOffset) from OutboxEvent e")
+    Optional<Long> findLastOffset();
+
+    // One page of the event feed, read from the uk_outbox_event_offset index
+    @Query("select e from OutboxEvent e where e.eventOffset > :afterOffset order by e.eventOffset")
+    List<OutboxEvent> findRelayedAfter(@Param("afterOffset") long afterOffset, Pageable pageable);
+}
@@ -0,0 +1,10 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Read-only projection of a class session with the class details a timetable shows.
+// Selected through a constructor expression, so no managed ClassSession or ClubClass entities are created.
+public record SessionView(Long classId, String className, LocalDate participationDate, LocalTime startTime,
+                          Integer duration, Integer capacity, Integer booked) {
+}
@@ -0,0 +1,20 @@
+package com.gymmanagement.gym_management_application.repository;
+
+import com.gymmanagement.gym_management_application.entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    Optional<WaitlistEntry> findByMemberIdAndClassIdAndParticipationDate(Long memberId, Long classId,
+                                                                         LocalDate participationDate);
+
+    // Head of the slot's queue, read from idx_waitlist_slot
+    Optional<WaitlistEntry> findFirstByClassIdAndParticipationDateOrderByIdAsc(Long classId, LocalDate participationDate);
+
+    // Position of an entry in its slot's queue, counting the entry itself
+    long countByClassIdAndParticipationDateAndIdLessThanEqual(Long classId, LocalDate participationDate, Long id);
+}
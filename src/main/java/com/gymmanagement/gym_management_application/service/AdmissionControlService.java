@@ -0,0 +1,183 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.admission.KeyedRateLimiter;
+import com.gymmanagement.gym_management_application.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Admission control for the booking endpoints, checked before a request touches the database: a token bucket per
+// client address and one per member name, then a limit on the booking requests in flight across all clients. A
+// batch costs its client one token per booking and each of its members one token.
+// Every check is a compare-and-set on a counter, so turning a request away costs no more than a map lookup.
+@Service
+@Slf4j
+public class AdmissionControlService {
+
+    // Seconds a client turned away by the concurrency limit is asked to wait before retrying
+    private static final long BUSY_RETRY_AFTER_SECONDS = 1;
+
+    private final boolean enabled;
+    private final KeyedRateLimiter memberLimiter;
+    private final KeyedRateLimiter clientLimiter;
+    private final int maxConcurrent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter memberRejections;
+    private final Counter clientRejections;
+    private final Counter concurrencyRejections;
+
+    public AdmissionControlService(MeterRegistry meterRegistry,
+                                   @Value("${gym.admission.enabled:true}") boolean enabled,
+                                   @Value("${gym.admission.member.permits-per-second:2}") double memberRate,
+                                   @Value("${gym.admission.member.burst:10}") int memberBurst,
+                                   @Value("${gym.admission.client.permits-per-second:50}") double clientRate,
+                                   @Value("${gym.admission.client.burst:100}") int clientBurst,
+                                   @Value("${gym.admission.max-concurrent:64}") int maxConcurrent) {
+        this.enabled = enabled;
+        this.memberLimiter = new KeyedRateLimiter(memberRate, memberBurst);
+        this.clientLimiter = new KeyedRateLimiter(clientRate, clientBurst);
+        this.maxConcurrent = maxConcurrent;
+
+        Gauge.builder("gym.admission.in.flight", inFlight, AtomicInteger::get)
+                .description("Booking requests admitted and not finished yet")
+                .register(meterRegistry);
+        Gauge.builder("gym.admission.buckets", this, service -> service.memberLimiter.size()
+                        + service.clientLimiter.size())
+                .description("Member and client rate limit buckets held")
+                .register(meterRegistry);
+        this.memberRejections = rejections(meterRegistry, "member");
+        this.clientRejections = rejections(meterRegistry, "client");
+        this.concurrencyRejections = rejections(meterRegistry, "concurrency");
+    }
+
+    // Admit a booking request from the client, on behalf of the member when it names one. The returned permit
+    // must be closed once the request is done.
+    public Permit admit(String memberName, String client) {
+        if (!enabled) {
+            return new Permit(false);
+        }
+        if (client != null) {
+            long wait = clientLimiter.tryAcquire(client);
+            if (wait > 0) {
+                clientRejections.increment();
+                throw new RateLimitExceededException("Too many booking requests. Please slow down.",
+                        toRetryAfterSeconds(wait));
+            }
+        }
+        if (memberName != null) {
+            long wait = memberLimiter.tryAcquire(memberName);
+            if (wait > 0) {
+                memberRejections.increment();
+                throw new RateLimitExceededException("Too many booking requests for this member. Please slow down.",
+                        toRetryAfterSeconds(wait));
+            }
+        }
+        if (inFlight.incrementAndGet() > maxConcurrent) {
+            inFlight.decrementAndGet();
+            concurrencyRejections.increment();
+            throw new RateLimitExceededException("Too many booking requests in progress. Please try again shortly.",
+                    BUSY_RETRY_AFTER_SECONDS);
+        }
+        return new Permit(true);
+    }
+
+    // Admit a batch of bookings from the client on behalf of the given members. The client's bucket is charged one
+    // token per booking, and every distinct member one token. A batch larger than the client's burst is let
+    // through once the bucket is full and leaves it in debt, so the client waits longer before its next request.
+    // Tokens taken before a later check turns the batch away are given back.
+    public Permit admitBatch(Collection<String> memberNames, int bookings, String client) {
+        if (!enabled) {
+            return new Permit(false);
+        }
+        if (client != null) {
+            long wait = clientLimiter.tryAcquire(client, bookings);
+            if (wait > 0) {
+                clientRejections.increment();
+                throw new RateLimitExceededException("Too many booking requests. Please slow down.",
+                        toRetryAfterSeconds(wait));
+            }
+        }
+
+        List<String> charged = new ArrayList<>();
+        try {
+            for (String memberName : new LinkedHashSet<>(memberNames)) {
+                if (memberName == null) {
+                    continue;
+                }
+                long wait = memberLimiter.tryAcquire(memberName);
+                if (wait > 0) {
+                    memberRejections.increment();
+                    throw new RateLimitExceededException("Too many booking requests for member " + memberName +
+                            ". Please slow down.", toRetryAfterSeconds(wait));
+                }
+                charged.add(memberName);
+            }
+            if (inFlight.incrementAndGet() > maxConcurrent) {
+                inFlight.decrementAndGet();
+                concurrencyRejections.increment();
+                throw new RateLimitExceededException("Too many booking requests in progress. Please try again shortly.",
+                        BUSY_RETRY_AFTER_SECONDS);
+            }
+        } catch (RateLimitExceededException e) {
+            charged.forEach(memberName -> memberLimiter.refund(memberName, 1));
+            if (client != null) {
+                clientLimiter.refund(client, bookings);
+            }
+            throw e;
+        }
+        return new Permit(true);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Drop the buckets of members and clients that have been quiet long enough to have a full bucket again
+    @Scheduled(fixedDelayString = "${gym.admission.eviction-interval:PT1M}",
+            initialDelayString = "${gym.admission.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        int evicted = memberLimiter.evictFull() + clientLimiter.evictFull();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("gym.admission.rejected")
+                .description("Booking requests turned away before reaching the database")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // A slot among the booking requests in flight, given back once on close
+    public final class Permit implements AutoCloseable {
+        private final AtomicBoolean held;
+
+        private Permit(boolean held) {
+            this.held = new AtomicBoolean(held);
+        }
+
+        @Override
+        public void close() {
+            if (held.compareAndSet(true, false)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
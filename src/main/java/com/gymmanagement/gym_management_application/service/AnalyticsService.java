@@ -0,0 +1,197 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.dto.AttendanceReportDto;
+import com.gymmanagement.gym_management_application.dto.ClassUtilizationDto;
+import com.gymmanagement.gym_management_application.dto.UtilizationDto;
+import com.gymmanagement.gym_management_application.entity.AttendanceRollup;
+import com.gymmanagement.gym_management_application.entity.AttendanceRollupState;
+import com.gymmanagement.gym_management_application.entity.ClassSession;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.RollupDimension;
+import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
+import com.gymmanagement.gym_management_application.repository.AttendanceRollupRepository;
+import com.gymmanagement.gym_management_application.repository.AttendanceRollupStateRepository;
+import com.gymmanagement.gym_management_application.repository.ClassSessionRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Attendance analytics answered from rollups. Once a day is over its sessions can no longer be booked, so the
+// rollup job adds each finished day's sessions to running per-class, per-weekday and per-hour totals exactly
+// once, moving a watermark in the same transaction. The only later change to a finished day is a cancellation,
+// which takes its seat off the totals in the cancelling transaction.
+@Service
+@Slf4j
+public class AnalyticsService {
+
+    private final AttendanceRollupRepository rollupRepository;
+    private final AttendanceRollupStateRepository stateRepository;
+    private final ClassSessionRepository sessionRepository;
+    private final ClubClassRepository classRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkDays;
+
+    public AnalyticsService(AttendanceRollupRepository rollupRepository,
+                            AttendanceRollupStateRepository stateRepository,
+                            ClassSessionRepository sessionRepository, ClubClassRepository classRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${gym.analytics.rollup-chunk-days:31}") int chunkDays) {
+        this.rollupRepository = rollupRepository;
+        this.stateRepository = stateRepository;
+        this.sessionRepository = sessionRepository;
+        this.classRepository = classRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkDays = chunkDays;
+    }
+
+    // Add every day up to yesterday that is not in the rollups yet, one chunk of days per transaction so the
+    // first run over a long history keeps its locks small. Returns the number of days rolled up.
+    @Scheduled(fixedDelayString = "${gym.analytics.rollup-interval:PT1H}",
+            initialDelayString = "${gym.analytics.rollup-interval:PT1H}")
+    public int rollUp() {
+        return rollUp(LocalDate.now().minusDays(1));
+    }
+
+    // Add every day up to the given one that is not in the rollups yet
+    public int rollUp(LocalDate through) {
+        int rolledUp = 0;
+        int days;
+        do {
+            days = transactionTemplate.execute(status -> rollUpChunk(through));
+            rolledUp += days;
+        } while (days > 0);
+
+        if (rolledUp > 0) {
+            log.info("Rolled up {} days of class sessions through {}", rolledUp, through);
+        }
+        return rolledUp;
+    }
+
+    // Take a released seat off the rollups when its day was already rolled up. Runs in the cancelling
+    // transaction after the session row was locked: the rollup job locks the sessions it reads, so either it
+    // read the lowered count, or it committed first and this sees its watermark.
+    public void recordReleased(ClubClass clazz, LocalDate participationDate) {
+        rollupRepository.releaseSeat(clazz.getId(), (long) participationDate.getDayOfWeek().getValue(),
+                (long) clazz.getStartTime().getHour(), participationDate);
+    }
+
+    // Method to get the utilization of every class with at least one rolled-up session
+    @Timed(value = "gym.analytics.classes", histogram = true)
+    public AttendanceReportDto<ClassUtilizationDto> getClassUtilization() {
+        List<AttendanceRollup> rollups = rollupRepository.findByDimensionOrderByBucket(RollupDimension.CLASS);
+        Map<Long, String> names = classRepository.findAllById(rollups.stream().map(AttendanceRollup::getBucket)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(ClubClass::getId, ClubClass::getName));
+        return new AttendanceReportDto<>(rolledUpThrough(), rollups.stream()
+                .map(rollup -> mapToClassDto(rollup, names.get(rollup.getBucket())))
+                .collect(Collectors.toList()));
+    }
+
+    // Method to get the utilization of one class
+    @Timed(value = "gym.analytics.classes", histogram = true)
+    public AttendanceReportDto<ClassUtilizationDto> getClassUtilization(Long classId) {
+        ClubClass clazz = classRepository.findById(classId)
+                .orElseThrow(() -> new ClassNotFoundException("Class not found."));
+        AttendanceRollup rollup = rollupRepository.findByDimensionAndBucket(RollupDimension.CLASS, classId)
+                .orElseGet(() -> new AttendanceRollup(RollupDimension.CLASS, classId));
+        return new AttendanceReportDto<>(rolledUpThrough(), List.of(mapToClassDto(rollup, clazz.getName())));
+    }
+
+    // Method to get the utilization per day of the week, Monday first
+    @Timed(value = "gym.analytics.weekdays", histogram = true)
+    public AttendanceReportDto<UtilizationDto> getWeekdayUtilization() {
+        return getUtilization(RollupDimension.WEEKDAY, bucket -> DayOfWeek.of(bucket.intValue()).name());
+    }
+
+    // Method to get the utilization per hour of the day the classes start in
+    @Timed(value = "gym.analytics.hours", histogram = true)
+    public AttendanceReportDto<UtilizationDto> getHourlyUtilization() {
+        return getUtilization(RollupDimension.HOUR, bucket -> LocalTime.of(bucket.intValue(), 0).toString());
+    }
+
+    private AttendanceReportDto<UtilizationDto> getUtilization(RollupDimension dimension,
+                                                               Function<Long, String> bucketName) {
+        return new AttendanceReportDto<>(rolledUpThrough(), rollupRepository.findByDimensionOrderByBucket(dimension)
+                .stream()
+                .map(rollup -> new UtilizationDto(bucketName.apply(rollup.getBucket()), rollup.getSessions(),
+                        rollup.getBookedSeats(), rollup.getCapacitySeats(), fillRatio(rollup)))
+                .collect(Collectors.toList()));
+    }
+
+    // Add the next chunk of finished days to the totals and move the watermark past it
+    private int rollUpChunk(LocalDate through) {
+        // Created here when the schema was generated rather than migrated
+        AttendanceRollupState state = stateRepository.findForUpdate(AttendanceRollupState.ID)
+                .orElseGet(() -> stateRepository.save(new AttendanceRollupState(AttendanceRollupState.ID, null)));
+
+        LocalDate from = state.getRolledUpThrough() != null
+                ? state.getRolledUpThrough().plusDays(1)
+                : sessionRepository.findFirstDate().orElse(null);
+        if (from == null || from.isAfter(through)) {
+            return 0;
+        }
+        LocalDate to = from.plusDays(chunkDays - 1).isBefore(through) ? from.plusDays(chunkDays - 1) : through;
+
+        // Locked so a cancellation on one of these sessions either lands before the read or sees the new watermark
+        List<ClassSession> sessions = sessionRepository.findForUpdateBetween(from, to);
+        Map<Long, ClubClass> classes = classRepository.findAllById(sessions.stream().map(ClassSession::getClassId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ClubClass::getId, clazz -> clazz));
+
+        // There are only as many rollup rows as classes plus 31 weekday and hour buckets
+        Map<RollupKey, AttendanceRollup> rollups = rollupRepository.findAll().stream()
+                .collect(Collectors.toMap(rollup -> new RollupKey(rollup.getDimension(), rollup.getBucket()),
+                        rollup -> rollup));
+        for (ClassSession session : sessions) {
+            add(rollups, new RollupKey(RollupDimension.CLASS, session.getClassId()), session);
+            add(rollups, new RollupKey(RollupDimension.WEEKDAY,
+                    (long) session.getParticipationDate().getDayOfWeek().getValue()), session);
+            add(rollups, new RollupKey(RollupDimension.HOUR,
+                    (long) classes.get(session.getClassId()).getStartTime().getHour()), session);
+        }
+        rollupRepository.saveAll(rollups.values());
+        state.setRolledUpThrough(to);
+        return (int) ChronoUnit.DAYS.between(from, to) + 1;
+    }
+
+    private void add(Map<RollupKey, AttendanceRollup> rollups, RollupKey key, ClassSession session) {
+        AttendanceRollup rollup = rollups.computeIfAbsent(key,
+                absent -> new AttendanceRollup(absent.dimension(), absent.bucket()));
+        rollup.setSessions(rollup.getSessions() + 1);
+        rollup.setBookedSeats(rollup.getBookedSeats() + session.getBooked());
+        rollup.setCapacitySeats(rollup.getCapacitySeats() + session.getCapacity());
+    }
+
+    private LocalDate rolledUpThrough() {
+        return stateRepository.findById(AttendanceRollupState.ID)
+                .map(AttendanceRollupState::getRolledUpThrough)
+                .orElse(null);
+    }
+
+    private ClassUtilizationDto mapToClassDto(AttendanceRollup rollup, String name) {
+        return new ClassUtilizationDto(rollup.getBucket(), name, rollup.getSessions(), rollup.getBookedSeats(),
+                rollup.getCapacitySeats(), fillRatio(rollup));
+    }
+
+    // Share of the offered seats that were booked, 0 for a bucket without sessions
+    private static double fillRatio(AttendanceRollup rollup) {
+        return rollup.getCapacitySeats() == 0 ? 0 : (double) rollup.getBookedSeats() / rollup.getCapacitySeats();
+    }
+
+    private record RollupKey(RollupDimension dimension, Long bucket) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.cache.SeatAvailabilityCache;
+import com.gymmanagement.gym_management_application.cache.SeatAvailabilityCache.SeatCount;
+import com.gymmanagement.gym_management_application.cache.Timetable;
+import com.gymmanagement.gym_management_application.dto.AvailabilityDto;
+import com.gymmanagement.gym_management_application.dto.CacheStatsDto;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.events.AvailabilityEventBus;
+import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
+import com.gymmanagement.gym_management_application.repository.ClassSessionRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+@Service
+public class AvailabilityService {
+
+    private final SeatAvailabilityCache seatCache;
+    private final ClubClassRepository classRepository;
+    private final ClassSessionRepository sessionRepository;
+    private final Timetable timetable;
+    private final AvailabilityEventBus eventBus;
+
+    public AvailabilityService(SeatAvailabilityCache seatCache, ClubClassRepository classRepository,
+                               ClassSessionRepository sessionRepository, Timetable timetable,
+                               AvailabilityEventBus eventBus) {
+        this.seatCache = seatCache;
+        this.classRepository = classRepository;
+        this.sessionRepository = sessionRepository;
+        this.timetable = timetable;
+        this.eventBus = eventBus;
+    }
+
+    // Method to get the seat availability of a class on a given date, served from the cache when possible
+    public AvailabilityDto getAvailability(Long classId, LocalDate participationDate) {
+        SeatCount seats = seatCache.get(classId, participationDate, () -> loadSeats(classId, participationDate));
+        return new AvailabilityDto(classId, participationDate, seats.capacity(), seats.booked(), seats.remaining());
+    }
+
+    // Seats booked in the slot, read for a booking rather than reported, so it stays out of the cache hit ratio
+    public int getBookedSeats(Long classId, LocalDate participationDate) {
+        return seatCache.getUncounted(classId, participationDate, () -> loadSeats(classId, participationDate))
+                .booked();
+    }
+
+    // True when the cache already knows the slot is full, letting a booking fail without a database round trip
+    public boolean isKnownFull(Long classId, LocalDate participationDate) {
+        return seatCache.isKnownFull(classId, participationDate);
+    }
+
+    // Write-through of the booked count read back from the session row after a committed booking, and of the
+    // seats the booking took to the timetable and the availability streams
+    public void recordBooked(ClubClass clazz, LocalDate participationDate, int booked, int seatsTaken) {
+        seatCache.recordBooked(clazz.getId(), participationDate, clazz.getCapacity(), booked);
+        if (seatsTaken > 0) {
+            timetable.adjustBooked(clazz.getId(), participationDate, seatsTaken);
+            eventBus.publish(clazz.getId(), participationDate);
+        }
+    }
+
+    // Drop the slot's cached seats after a seat was given back, so the next read and booking see the lower
+    // count, and give the seat back in the timetable and the availability streams
+    public void recordReleased(Long classId, LocalDate participationDate) {
+        seatCache.invalidate(classId, participationDate);
+        timetable.adjustBooked(classId, participationDate, -1);
+        eventBus.publish(classId, participationDate);
+    }
+
+    // Method to get the seat cache counters
+    public CacheStatsDto getCacheStats() {
+        return new CacheStatsDto(seatCache.hitCount(), seatCache.missCount(), seatCache.evictionCount(), seatCache.size());
+    }
+
+    // Rebuild a slot's seat count from the database on a cache miss
+    private SeatCount loadSeats(Long classId, LocalDate participationDate) {
+        ClubClass clazz = classRepository.findById(classId)
+                .orElseThrow(() -> new ClassNotFoundException("Class not found."));
+
+        // Every booking belongs to a session, so a date without one has nothing booked yet
+        return sessionRepository.findByClassIdAndParticipationDate(classId, participationDate)
+                .map(session -> new SeatCount(session.getCapacity(), session.getBooked()))
+                .orElseGet(() -> new SeatCount(clazz.getCapacity(), 0));
+    }
+}
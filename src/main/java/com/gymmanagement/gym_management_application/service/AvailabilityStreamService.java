@@ -0,0 +1,317 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.dto.AvailabilityDto;
+import com.gymmanagement.gym_management_application.events.AvailabilityEventBus;
+import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
+import com.gymmanagement.gym_management_application.exception.SubscriberLimitExceededException;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes live seat availability to server-sent event subscribers, one stream per class and optionally one date.
+// A single dispatcher thread drains the changed slots from the event bus every interval, reads each slot's
+// availability once and hands it to the slot's subscribers; a small pool of sender threads writes to the
+// connections. A write that does not finish within the send timeout, such as to a client that stopped reading,
+// closes that stream, so one stuck connection cannot hold a sender away from the others. Each subscriber holds at most the latest availability per date it has not been sent yet, so a
+// slow consumer is sent the current state once it catches up instead of every change in between, and one that
+// falls further behind than the pending limit is dropped and left to reconnect.
+@Service
+@Slf4j
+public class AvailabilityStreamService implements SmartLifecycle {
+
+    private static final String EVENT_NAME = "availability";
+
+    private final AvailabilityEventBus eventBus;
+    private final AvailabilityService availabilityService;
+    private final ClubClassRepository classRepository;
+    private final int maxSubscribers;
+    private final int maxPendingSlots;
+    private final Duration dispatchInterval;
+    private final Duration heartbeatInterval;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+    private final ExecutorService senders;
+    // Runs the blocking writes the senders wait on with a timeout, and completes the streams closed by them. A
+    // write that timed out keeps its thread until the container gives up on the connection.
+    private final ExecutorService writers;
+    private final Counter dropped;
+
+    // Subscribers by class id
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private volatile boolean running;
+    private ScheduledExecutorService dispatcher;
+
+    public AvailabilityStreamService(AvailabilityEventBus eventBus, AvailabilityService availabilityService,
+                                     ClubClassRepository classRepository, MeterRegistry meterRegistry,
+                                     @Value("${gym.availability-stream.max-subscribers:10000}") int maxSubscribers,
+                                     @Value("${gym.availability-stream.max-pending-slots:64}") int maxPendingSlots,
+                                     @Value("${gym.availability-stream.sender-threads:4}") int senderThreads,
+                                     @Value("${gym.availability-stream.dispatch-interval:250ms}") Duration dispatchInterval,
+                                     @Value("${gym.availability-stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                     @Value("${gym.availability-stream.timeout:30m}") Duration timeout,
+                                     @Value("${gym.availability-stream.send-timeout:5s}") Duration sendTimeout) {
+        this.eventBus = eventBus;
+        this.availabilityService = availabilityService;
+        this.classRepository = classRepository;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPendingSlots = maxPendingSlots;
+        this.dispatchInterval = dispatchInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+
+        AtomicInteger senderNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-stream-sender-" + senderNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger writerNumber = new AtomicInteger();
+        this.writers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "availability-stream-writer-" + writerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("gym.availability.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open seat availability streams")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("gym.availability.stream.dropped")
+                .description("Seat availability streams closed for falling behind or not reading")
+                .register(meterRegistry);
+    }
+
+    // Method to open a seat availability stream for a class, for every date or only the given one. A stream for
+    // one date starts with that date's current availability.
+    public SseEmitter subscribe(Long classId, LocalDate participationDate) {
+        if (!classRepository.existsById(classId)) {
+            throw new ClassNotFoundException("Class not found.");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriberLimitExceededException("Too many open availability streams. Please try again later.");
+        }
+
+        Subscriber subscriber = new Subscriber(classId, participationDate, new SseEmitter(timeout.toMillis()));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(error -> remove(subscriber));
+        subscribers.computeIfAbsent(classId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        if (participationDate != null) {
+            offer(subscriber, availabilityService.getAvailability(classId, participationDate));
+        }
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // Hand the current availability of every slot changed since the last run to its subscribers
+    private void dispatch() {
+        try {
+            for (AvailabilityEventBus.Slot slot : eventBus.drain()) {
+                Set<Subscriber> classSubscribers = subscribers.get(slot.classId());
+                if (classSubscribers == null || classSubscribers.isEmpty()) {
+                    continue;
+                }
+                AvailabilityDto availability = null;
+                for (Subscriber subscriber : classSubscribers) {
+                    if (subscriber.participationDate != null
+                            && !subscriber.participationDate.equals(slot.participationDate())) {
+                        continue;
+                    }
+                    // Read once per slot, and only when someone listens to it
+                    if (availability == null) {
+                        availability = availabilityService.getAvailability(slot.classId(), slot.participationDate());
+                    }
+                    offer(subscriber, availability);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Must not escape, or the executor stops scheduling the dispatcher
+            log.warn("Could not dispatch seat availability changes", e);
+        }
+    }
+
+    // Keep idle connections open through proxies, and find the ones the client has gone away from
+    private void heartbeat() {
+        subscribers.values().forEach(classSubscribers -> classSubscribers.forEach(subscriber -> {
+            subscriber.heartbeatDue.set(true);
+            schedule(subscriber);
+        }));
+    }
+
+    // Replace the date's unsent availability with the latest, dropping a subscriber that is too far behind
+    private void offer(Subscriber subscriber, AvailabilityDto availability) {
+        subscriber.pending.put(availability.getParticipationDate(), availability);
+        if (subscriber.pending.size() > maxPendingSlots) {
+            log.debug("Dropping availability stream of class {} with {} unsent slots",
+                    subscriber.classId, subscriber.pending.size());
+            dropped.increment();
+            close(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    // Queue the subscriber on the sender pool unless it is queued or being sent to already
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    // Write the subscriber's unsent availability, on a sender thread
+    private void send(Subscriber subscriber) {
+        try {
+            for (LocalDate date : subscriber.pending.keySet()) {
+                AvailabilityDto availability = subscriber.pending.remove(date);
+                if (availability != null) {
+                    write(subscriber, SseEmitter.event().name(EVENT_NAME).data(availability));
+                }
+            }
+            if (subscriber.heartbeatDue.getAndSet(false)) {
+                write(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the stream was already completed
+            remove(subscriber);
+            subscriber.pending.clear();
+        } catch (TimeoutException e) {
+            log.debug("Dropping availability stream of class {} that did not take a write within {}",
+                    subscriber.classId, sendTimeout);
+            dropped.increment();
+            close(subscriber);
+            subscriber.pending.clear();
+        } catch (InterruptedException e) {
+            // The sender pool is shutting down
+            Thread.currentThread().interrupt();
+        } finally {
+            subscriber.sending.set(false);
+        }
+
+        // Anything offered while this run was writing
+        if (subscriber.subscribed.get() && (!subscriber.pending.isEmpty() || subscriber.heartbeatDue.get())) {
+            schedule(subscriber);
+        }
+    }
+
+    // Write one event on a writer thread, waiting at most the send timeout for the client to take it
+    private void write(Subscriber subscriber, SseEmitter.SseEventBuilder event)
+            throws IOException, TimeoutException, InterruptedException {
+        Future<?> write = writers.submit(() -> {
+            subscriber.emitter.send(event);
+            return null;
+        });
+        try {
+            write.get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            write.cancel(true);
+            throw e;
+        }
+    }
+
+    // Unsubscribe and complete the stream. Completing flushes the connection, so it runs on a writer thread
+    // where a client that stopped reading cannot hold up the caller.
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        writers.execute(subscriber.emitter::complete);
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.subscribed.compareAndSet(true, false)) {
+            Set<Subscriber> classSubscribers = subscribers.get(subscriber.classId);
+            if (classSubscribers != null) {
+                classSubscribers.remove(subscriber);
+            }
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    // Start dispatching once the web server takes requests
+    @Override
+    public void start() {
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-stream-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatch, dispatchInterval.toMillis(), dispatchInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    // Close every stream, so a graceful shutdown of the web server does not wait for them to time out
+    @Override
+    public void stop() {
+        running = false;
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(classSubscribers -> classSubscribers.forEach(this::close));
+        senders.shutdown();
+        writers.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Start after the web server started and stop before it stops
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    // An open stream: the latest unsent availability per date, and whether a sender has it queued or in hand
+    private static final class Subscriber {
+        private final Long classId;
+        private final LocalDate participationDate;
+        private final SseEmitter emitter;
+        private final Map<LocalDate, AvailabilityDto> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean subscribed = new AtomicBoolean(true);
+
+        private Subscriber(Long classId, LocalDate participationDate, SseEmitter emitter) {
+            this.classId = classId;
+            this.participationDate = participationDate;
+            this.emitter = emitter;
+        }
+    }
+}
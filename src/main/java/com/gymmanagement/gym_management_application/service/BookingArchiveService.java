@@ -0,0 +1,115 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.HistoricalBookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Moves active bookings whose participation date has passed out of the booking table into the monthly
+// partitions of booking_history, one batch per transaction, so the booking table and its indexes only hold the
+// bookings still to come. Keeps two bounds in memory to route searches: the last date the history may hold,
+// and the first date the booking table may still hold an active booking for. A search skips the table its
+// dates cannot be in.
+@Service
+@Slf4j
+public class BookingArchiveService {
+
+    private final BookingRepository bookingRepository;
+    private final HistoricalBookingRepository historyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int graceDays;
+    private final int batchSize;
+
+    // Until the bounds are read at startup the history may hold any date and the booking table any date
+    private volatile LocalDate lastArchivedDate = LocalDate.MAX;
+    private volatile LocalDate firstActiveDate = LocalDate.MIN;
+
+    public BookingArchiveService(BookingRepository bookingRepository, HistoricalBookingRepository historyRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${gym.booking-archival.grace-days:1}") int graceDays,
+                                 @Value("${gym.booking-archival.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.historyRepository = historyRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.graceDays = graceDays;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadBounds() {
+        lastArchivedDate = historyRepository.findLastDate().orElse(null);
+        firstActiveDate = bookingRepository.findFirstDate().orElse(null);
+    }
+
+    // Archive every active booking dated more than the grace days ago. Returns the number of bookings archived.
+    @Scheduled(fixedDelayString = "${gym.booking-archival.interval:PT1H}",
+            initialDelayString = "${gym.booking-archival.interval:PT1H}")
+    public int archivePastBookings() {
+        return archiveBookingsBefore(LocalDate.now().minusDays(graceDays));
+    }
+
+    // Archive every active booking dated before the given day
+    public int archiveBookingsBefore(LocalDate before) {
+        // Searches must look in the history for these dates before the first batch commits
+        LocalDate previousLast = lastArchivedDate;
+        LocalDate last = before.minusDays(1);
+        if (previousLast == null || previousLast.isBefore(last)) {
+            lastArchivedDate = last;
+        }
+
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(before));
+            archived += moved;
+        } while (moved == batchSize);
+
+        // Only once every batch committed may searches stop looking in the booking table for these dates
+        if (firstActiveDate == null || firstActiveDate.isBefore(before)) {
+            firstActiveDate = before;
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} bookings dated before {}", archived, before);
+        } else {
+            // Nothing was moved, so the history holds no more than it did
+            lastArchivedDate = previousLast;
+        }
+        return archived;
+    }
+
+    // Whether the history may hold bookings on or after the given date; a null date stands for any date
+    public boolean mayHoldArchived(LocalDate from) {
+        LocalDate last = lastArchivedDate;
+        return last != null && (from == null || !from.isAfter(last));
+    }
+
+    // Whether the booking table may hold active bookings on or before the given date; a null date stands for
+    // any date. New bookings can be made for today, whatever the table held before.
+    public boolean mayHoldActive(LocalDate through) {
+        LocalDate today = LocalDate.now();
+        LocalDate first = firstActiveDate;
+        LocalDate floor = first == null || first.isAfter(today) ? today : first;
+        return through == null || !through.isBefore(floor);
+    }
+
+    private int archiveBatch(LocalDate before) {
+        List<Long> ids = bookingRepository.findActiveIdsBeforeForUpdate(before, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        historyRepository.archiveActive(ids, LocalDateTime.now());
+        bookingRepository.deleteActive(ids);
+        return ids.size();
+    }
+}
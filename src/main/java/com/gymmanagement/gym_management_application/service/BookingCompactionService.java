@@ -0,0 +1,63 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.repository.ArchivedBookingRepository;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Moves cancelled bookings out of the booking table into booking_archive, so the hot table and its
+// indexes only grow with active bookings
+@Service
+@Slf4j
+public class BookingCompactionService {
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public BookingCompactionService(BookingRepository bookingRepository,
+                                    ArchivedBookingRepository archivedBookingRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${gym.booking-compaction.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    // Archive every cancelled booking, one batch per transaction so locks and undo stay small.
+    // Returns the number of bookings archived.
+    @Scheduled(fixedDelayString = "${gym.booking-compaction.interval:PT1H}",
+            initialDelayString = "${gym.booking-compaction.interval:PT1H}")
+    public int compactCancelledBookings() {
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch());
+            archived += moved;
+        } while (moved == batchSize);
+
+        if (archived > 0) {
+            log.info("Archived {} cancelled bookings", archived);
+        }
+        return archived;
+    }
+
+    private int archiveBatch() {
+        List<Long> ids = bookingRepository.findCancelledIds(batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedBookingRepository.archiveCancelled(ids, LocalDateTime.now());
+        bookingRepository.deleteCancelled(ids);
+        return ids.size();
+    }
+}
@@ -1,116 +1,596 @@
 package com.gymmanagement.gym_management_application.service;
 
+import com.gymmanagement.gym_management_application.dto.BatchBookingResultDto;
+import com.gymmanagement.gym_management_application.dto.BookingCancellationDto;
 import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingPageDto;
 import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.dto.ClassResponseDto;
+import com.gymmanagement.gym_management_application.dto.WaitlistEntryDto;
 import com.gymmanagement.gym_management_application.entity.Booking;
+import com.gymmanagement.gym_management_application.entity.ClassSession;
 import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.HistoricalBooking;
+import com.gymmanagement.gym_management_application.entity.Member;
+import com.gymmanagement.gym_management_application.entity.WeeklyRecurrence;
+import com.gymmanagement.gym_management_application.events.BookingCancelled;
+import com.gymmanagement.gym_management_application.events.BookingCreated;
 import com.gymmanagement.gym_management_application.exception.*;
 import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
 import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.BookingView;
 import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.repository.HistoricalBookingRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookingService {
 
+    // Page size used when the client does not ask for one, and the most a client can ask for
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final BookingRepository bookingRepository;
     private final ClubClassRepository classRepository;
+    private final OccupancyService occupancyService;
+    private final AvailabilityService availabilityService;
+    private final WaitlistService waitlistService;
+    private final MemberService memberService;
+    private final ClassSessionService sessionService;
+    private final AnalyticsService analyticsService;
+    private final OutboxService outboxService;
+    private final HistoricalBookingRepository historyRepository;
+    private final BookingArchiveService archiveService;
+    private final DuplicateBookingService duplicateBookingService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Validator validator;
 
-    public BookingService(BookingRepository bookingRepository, ClubClassRepository classRepository) {
+    public BookingService(BookingRepository bookingRepository, ClubClassRepository classRepository,
+                          OccupancyService occupancyService, AvailabilityService availabilityService,
+                          WaitlistService waitlistService, MemberService memberService,
+                          ClassSessionService sessionService, AnalyticsService analyticsService,
+                          OutboxService outboxService, HistoricalBookingRepository historyRepository,
+                          BookingArchiveService archiveService, DuplicateBookingService duplicateBookingService,
+                          PlatformTransactionManager transactionManager, Validator validator) {
         this.bookingRepository = bookingRepository;
         this.classRepository = classRepository;
+        this.occupancyService = occupancyService;
+        this.availabilityService = availabilityService;
+        this.waitlistService = waitlistService;
+        this.memberService = memberService;
+        this.sessionService = sessionService;
+        this.analyticsService = analyticsService;
+        this.outboxService = outboxService;
+        this.historyRepository = historyRepository;
+        this.archiveService = archiveService;
+        this.duplicateBookingService = duplicateBookingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.validator = validator;
     }
 
     // Method to create a booking using BookingDto in service layer
+    @Timed(value = "gym.bookings.create", histogram = true)
     public BookingResponseDto createBooking(BookingDto bookingDto) {
+        return createBooking(bookingDto, null);
+    }
+
+    // Method to create a booking for a request carrying an Idempotency-Key. A retry with the same key gets the
+    // booking the first request created instead of a second one.
+    @Timed(value = "gym.bookings.create", histogram = true)
+    public BookingResponseDto createBooking(BookingDto bookingDto, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<Booking> existingBooking = bookingRepository.findByIdempotencyKey(idempotencyKey);
+            if (existingBooking.isPresent()) {
+                return mapToDto(existingBooking.get());
+            }
+        }
+
         // Fetch the class by ID
         ClubClass clazz = classRepository.findById(bookingDto.getClassId())
                 .orElseThrow(() -> new ClassNotFoundException("Class not found."));
 
-        // Ensure the participation date is in the future
-        if (bookingDto.getParticipationDate().isBefore(LocalDate.now())) {
-            throw new InvalidParticipationDateException("Participation date must be in the future.");
+        // Find the session booked, which also checks the participation date
+        ClassSession session = findSession(clazz, bookingDto.getParticipationDate());
+
+        // A slot the seat cache already knows is full goes straight to the waitlist path below
+        boolean knownFull = availabilityService.isKnownFull(clazz.getId(), bookingDto.getParticipationDate());
+
+        // Make sure the member exists before the booking transaction starts
+        Member member = memberService.resolve(bookingDto.getMemberName());
+
+        // A member already holding the slot is turned away before a seat is reserved or they are queued
+        duplicateBookingService.checkNotBooked(member.getId(), clazz.getId(), session.getParticipationDate());
+
+        // Reserve the seat and insert the booking in one transaction, so a concurrent request for the
+        // same session waits on its row instead of seeing a stale count
+        Reservation reservation;
+        try {
+            reservation = reserve(clazz, session, member, idempotencyKey, knownFull);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key committed first: answer with its booking
+            if (idempotencyKey != null) {
+                Optional<Booking> existingBooking = bookingRepository.findByIdempotencyKey(idempotencyKey);
+                if (existingBooking.isPresent()) {
+                    return mapToDto(existingBooking.get());
+                }
+            }
+            // A concurrent request of the member booked the slot first
+            if (DuplicateBookingService.isDuplicateBooking(e)) {
+                throw duplicateBookingService.duplicate();
+            }
+            throw e;
         }
 
-        // Check if the end date is before the start date
-        if (clazz.getEndDate().isBefore(clazz.getStartDate())) {
-            throw new ValidationException("End date must not be before the start date.");
+        // Keep the seat cache in step with the committed booking or the full slot
+        availabilityService.recordBooked(clazz, bookingDto.getParticipationDate(), reservation.bookedSeats(),
+                reservation.booking() == null ? 0 : 1);
+        if (reservation.waitlistEntry() != null) {
+            throw new BookingWaitlistedException("Class is already at full capacity. You have been added to " +
+                    "the waitlist at position " + reservation.waitlistEntry().getPosition() + ".",
+                    reservation.waitlistEntry());
         }
+        Booking savedBooking = reservation.booking();
+        duplicateBookingService.recordBooked(savedBooking);
+
+        // Map the saved entity back to BookingDto
+        return mapToDto(savedBooking);
+    }
+
+    // Private method reserving the seat and inserting the booking, or queueing the member when the slot is full
+    private Reservation reserve(ClubClass clazz, ClassSession session, Member member, String idempotencyKey,
+                                boolean knownFull) {
+        return transactionTemplate.execute(status -> {
+            // Check if the session has exceeded capacity
+            OptionalInt bookedSeats = knownFull
+                    ? OptionalInt.empty()
+                    : occupancyService.tryReserve(session.getId());
+            if (bookedSeats.isEmpty()) {
+                // Lock the session and look again: a seat released since the check is taken here, otherwise the
+                // member is queued while no release can slip in between
+                OccupancyService.SeatGrant grant = occupancyService.reserveSeats(session.getId(), 1);
+                if (grant.granted() == 0) {
+                    WaitlistEntryDto waitlistEntry = waitlistService.enqueue(
+                            clazz, session.getParticipationDate(), member);
+                    return new Reservation(null, waitlistEntry, grant.bookedSeats());
+                }
+                bookedSeats = OptionalInt.of(grant.bookedSeats());
+            }
 
-        // Check if the participation date is within the class start and end dates
-        if (bookingDto.getParticipationDate().isBefore(clazz.getStartDate()) ||
-                bookingDto.getParticipationDate().isAfter(clazz.getEndDate())) {
-            throw new InvalidParticipationDateException(String.format(
-                    "Participation date must be on or between the class start date (%s) and end date (%s).",
-                    clazz.getStartDate(), clazz.getEndDate()));
+            // Create a new Booking entity
+            Booking booking = new Booking();
+            booking.setMember(member);
+            booking.setClazz(clazz);
+            booking.setParticipationDate(session.getParticipationDate());
+            booking.setSessionId(session.getId());
+            booking.setIdempotencyKey(idempotencyKey);
+
+            // Save the booking in the repository, with its event
+            Booking saved = bookingRepository.save(booking);
+            outboxService.append(BookingCreated.of(saved));
+            return new Reservation(saved, null, bookedSeats.getAsInt());
+        });
+    }
+
+    // Method to cancel a booking. The booking is soft-deleted and its seat released in one transaction: the seat
+    // goes straight to the head of the slot's waitlist when a member is waiting, otherwise it is free again.
+    @Timed(value = "gym.bookings.cancel", histogram = true)
+    public BookingCancellationDto cancelBooking(Long bookingId) {
+        // Fetch the active booking with its member, and its class
+        Booking booking = bookingRepository.findWithMemberById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException("Booking not found."));
+        ClubClass clazz = classRepository.findById(booking.getClazz().getId())
+                .orElseThrow(() -> new ClassNotFoundException("Class not found."));
+        booking.setClazz(clazz);
+        LocalDate participationDate = booking.getParticipationDate();
+
+        OccupancyService.SeatRelease release = transactionTemplate.execute(status -> {
+            // Only the cancellation that flips the status releases the seat
+            if (bookingRepository.cancel(bookingId, LocalDateTime.now()) == 0) {
+                throw new BookingNotFoundException("Booking not found.");
+            }
+            OccupancyService.SeatRelease released = occupancyService.releaseSeat(clazz, booking.getSessionId());
+            outboxService.append(new BookingCancelled(bookingId, booking.getMember().getId(), clazz.getId(),
+                    participationDate, released.promotedBooking() == null ? null : released.promotedBooking().getId()));
+            // A seat freed on a day already rolled up comes off the attendance totals as well
+            if (released.promotedBooking() == null) {
+                analyticsService.recordReleased(clazz, participationDate);
+            }
+            return released;
+        });
+
+        // A seat handed to a waiting member leaves the count as it was; a freed seat must not be served from the
+        // cache as still taken
+        if (release.promotedBooking() == null) {
+            availabilityService.recordReleased(clazz.getId(), participationDate);
+        } else {
+            duplicateBookingService.recordBooked(release.promotedBooking());
         }
 
+        BookingResponseDto promoted = release.promotedBooking() == null ? null : mapToDto(release.promotedBooking());
+        return new BookingCancellationDto(mapToDto(booking), promoted);
+    }
 
-        // Count the number of bookings for the class on the given participation date
-        long bookingsCount = bookingRepository.findByParticipationDateBetween(bookingDto.getParticipationDate(), bookingDto.getParticipationDate()).stream()
-                .filter(booking -> booking.getClazz().getId().equals(bookingDto.getClassId()))
-                .count();
+    // Method to create many bookings at once. Items are grouped by class and participation date so each
+    // slot is validated and reserved once, and all bookings are inserted in a single batched flush.
+    // Returns one result per item, in the order the items were submitted.
+    @Timed(value = "gym.bookings.create.batch", histogram = true)
+    public List<BatchBookingResultDto> createBookings(List<BookingDto> bookingDtos) {
+        BatchBookingResultDto[] results = new BatchBookingResultDto[bookingDtos.size()];
 
-        // Check if the class has exceeded capacity
-        if (bookingsCount >= clazz.getCapacity()) {
-            throw new CapacityExceededException("Class is already at full capacity. Can't book " +
-                    "this class");
+        // Validate each item on its own and group the valid ones by slot
+        Map<SlotKey, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            Set<ConstraintViolation<BookingDto>> violations = validator.validate(bookingDto);
+            if (!violations.isEmpty()) {
+                String errorMessage = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(". ", "Please provide proper payload. ", "."));
+                results[i] = BatchBookingResultDto.failure(i, "VALIDATION_ERROR", errorMessage);
+                continue;
+            }
+            groups.computeIfAbsent(new SlotKey(bookingDto.getClassId(), bookingDto.getParticipationDate()),
+                    key -> new ArrayList<>()).add(i);
         }
 
-        // Create a new Booking entity
-        Booking booking = new Booking();
-        booking.setMemberName(bookingDto.getMemberName());
-        booking.setClazz(clazz);
-        booking.setParticipationDate(bookingDto.getParticipationDate());
+        // Fetch all the referenced classes with one query
+        Set<Long> classIds = groups.keySet().stream().map(SlotKey::classId).collect(Collectors.toSet());
+        Map<Long, ClubClass> classes = classRepository.findAllById(classIds).stream()
+                .collect(Collectors.toMap(ClubClass::getId, clazz -> clazz));
 
-        // Save the booking in the repository
-        Booking savedBooking = bookingRepository.save(booking);
+        // Validate each slot once and find its session, failing all of its items together
+        Map<SlotKey, ClubClass> bookableSlots = new LinkedHashMap<>();
+        Map<SlotKey, ClassSession> sessions = new HashMap<>();
+        for (Map.Entry<SlotKey, List<Integer>> group : groups.entrySet()) {
+            SlotKey slot = group.getKey();
+            ClubClass clazz = classes.get(slot.classId());
+            String errorCode = null;
+            String errorMessage = null;
+            if (clazz == null) {
+                errorCode = "CLASS_NOT_FOUND";
+                errorMessage = "Class not found.";
+            } else {
+                try {
+                    sessions.put(slot, findSession(clazz, slot.participationDate()));
+                    if (availabilityService.isKnownFull(clazz.getId(), slot.participationDate())) {
+                        throw new CapacityExceededException("Class is already at full capacity. Can't book " +
+                                "this class");
+                    }
+                } catch (InvalidParticipationDateException e) {
+                    errorCode = "INVALID_DATE";
+                    errorMessage = e.getMessage();
+                } catch (ValidationException e) {
+                    errorCode = "VALIDATION_ERROR";
+                    errorMessage = e.getMessage();
+                } catch (CapacityExceededException e) {
+                    errorCode = "CAPACITY_EXCEEDED";
+                    errorMessage = e.getMessage();
+                }
+            }
 
-        // Map the saved entity back to BookingDto
-        BookingResponseDto savedBookingDto = new BookingResponseDto();
-        savedBookingDto.setBookingId(savedBooking.getId());
-        savedBookingDto.setMemberName(savedBooking.getMemberName());
-        savedBookingDto.setGymClass(savedBooking.getClazz());
-        savedBookingDto.setParticipationDate(savedBooking.getParticipationDate());
-        savedBookingDto.setClassStartTime(savedBooking.getClazz().getStartTime());
-
-        return savedBookingDto;
-    }
-
-    // Method to search bookings using BookingDto in service layer
-    public List<BookingResponseDto> searchBookings(String memberName, LocalDate startDate, LocalDate endDate) {
-        List<Booking> bookings;
-
-        // Fetch the bookings based on search criteria
-        if (memberName != null && startDate != null && endDate != null) {
-            bookings = bookingRepository.findByMemberNameAndParticipationDateBetween(memberName, startDate, endDate);
-        } else if (memberName != null) {
-            bookings = bookingRepository.findByMemberName(memberName);
-        } else if (startDate != null && endDate != null) {
-            bookings = bookingRepository.findByParticipationDateBetween(startDate, endDate);
+            if (errorCode != null) {
+                for (int index : group.getValue()) {
+                    results[index] = BatchBookingResultDto.failure(index, errorCode, errorMessage);
+                }
+            } else {
+                bookableSlots.put(slot, clazz);
+            }
+        }
+
+        // Make sure the members of all bookable items exist, creating new ones together
+        Map<String, Member> members = memberService.resolveAll(bookableSlots.keySet().stream()
+                .flatMap(slot -> groups.get(slot).stream())
+                .map(index -> bookingDtos.get(index).getMemberName())
+                .collect(Collectors.toList()));
+
+        // Items for a slot their member already holds fail, as do repeats of a member within one slot's items
+        for (SlotKey slot : bookableSlots.keySet()) {
+            Set<Long> slotMembers = new HashSet<>();
+            List<Integer> remaining = new ArrayList<>();
+            for (int index : groups.get(slot)) {
+                Long memberId = members.get(bookingDtos.get(index).getMemberName()).getId();
+                if (!slotMembers.add(memberId)
+                        || duplicateBookingService.isBooked(memberId, slot.classId(), slot.participationDate())) {
+                    results[index] = BatchBookingResultDto.failure(index, "DUPLICATE_BOOKING",
+                            duplicateBookingService.duplicate().getMessage());
+                } else {
+                    remaining.add(index);
+                }
+            }
+            groups.put(slot, remaining);
+        }
+
+        // Reserve the seats of every session and insert all bookings in one transaction and one batched flush
+        Map<SlotKey, OccupancyService.SeatGrant> grants = new HashMap<>();
+        List<Booking> savedBookings;
+        try {
+            savedBookings = transactionTemplate.execute(status -> {
+                List<Booking> bookings = new ArrayList<>();
+                List<Integer> bookingIndexes = new ArrayList<>();
+                for (Map.Entry<SlotKey, ClubClass> bookableSlot : bookableSlots.entrySet()) {
+                    SlotKey slot = bookableSlot.getKey();
+                    ClubClass clazz = bookableSlot.getValue();
+                    ClassSession session = sessions.get(slot);
+                    List<Integer> indexes = groups.get(slot);
+                    if (indexes.isEmpty()) {
+                        continue;
+                    }
+
+                    // Items beyond the remaining seats fail, in submission order
+                    OccupancyService.SeatGrant grant = occupancyService.reserveSeats(session.getId(), indexes.size());
+                    grants.put(slot, grant);
+                    for (int position = 0; position < indexes.size(); position++) {
+                        int index = indexes.get(position);
+                        if (position >= grant.granted()) {
+                            results[index] = BatchBookingResultDto.failure(index, "CAPACITY_EXCEEDED",
+                                    "Class is already at full capacity. Can't book this class");
+                            continue;
+                        }
+                        Booking booking = new Booking();
+                        booking.setMember(members.get(bookingDtos.get(index).getMemberName()));
+                        booking.setClazz(clazz);
+                        booking.setParticipationDate(slot.participationDate());
+                        booking.setSessionId(session.getId());
+                        bookings.add(booking);
+                        bookingIndexes.add(index);
+                    }
+                }
+
+                List<Booking> saved = bookingRepository.saveAll(bookings);
+                outboxService.appendAll(saved.stream().map(BookingCreated::of).collect(Collectors.toList()));
+                for (int i = 0; i < saved.size(); i++) {
+                    int index = bookingIndexes.get(i);
+                    results[index] = BatchBookingResultDto.success(index, mapToDto(saved.get(i)));
+                }
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request booked one of the slots for its member first; the whole batch is rolled back
+            if (DuplicateBookingService.isDuplicateBooking(e)) {
+                throw duplicateBookingService.duplicate();
+            }
+            throw e;
+        }
+        duplicateBookingService.recordBooked(savedBookings);
+
+        // Keep the seat cache in step with the committed bookings
+        grants.forEach((slot, grant) -> availabilityService.recordBooked(bookableSlots.get(slot),
+                slot.participationDate(), grant.bookedSeats(), grant.granted()));
+
+        return Arrays.asList(results);
+    }
+
+    // Method to search bookings one page at a time. Pages are keyed on the booking id, so fetching a later
+    // page costs the same as the first one and never materializes more than the page size.
+    @Timed(value = "gym.bookings.search", histogram = true)
+    public BookingPageDto searchBookings(String memberName, LocalDate startDate, LocalDate endDate,
+                                         Long afterId, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long cursor = afterId == null ? 0L : afterId;
+
+        // Fetch one row more than the page size to know whether another page follows
+        Limit limit = Limit.of(pageSize + 1);
+        List<BookingView> bookings;
+
+        // Fetch the bookings based on search criteria. A member name is resolved to the member's id first,
+        // and a name no member has matches no bookings. The booking table and the history are each only read
+        // when the date range can reach them, and their pages merged in id order.
+        Optional<Long> memberId = memberName == null ? Optional.empty() : memberService.findMemberId(memberName);
+        boolean dateRange = startDate != null && endDate != null;
+        if (memberName != null && memberId.isEmpty()) {
+            bookings = List.of();
         } else {
-            bookings = bookingRepository.findAll();
+            List<BookingView> active = archiveService.mayHoldActive(dateRange ? endDate : null)
+                    ? findActiveViews(memberId.orElse(null), dateRange ? startDate : null, endDate, cursor, limit)
+                    : List.of();
+            List<BookingView> archived = archiveService.mayHoldArchived(dateRange ? startDate : null)
+                    ? findArchivedViews(memberId.orElse(null), dateRange ? startDate : null, endDate, cursor, limit)
+                    : List.of();
+            bookings = mergeById(active, archived, limit.max());
         }
 
         // If no records are found, return a custom message
-        if (bookings.isEmpty()) {
+        if (bookings.isEmpty() && afterId == null) {
             throw new NoRecordsFoundException("No records found for the provided search criteria.");
         }
 
-        // Map the list of Booking entities to BookingDto
-        return bookings.stream().map(booking -> {
-            BookingResponseDto dto = new BookingResponseDto();
-            dto.setBookingId(booking.getId());
-            dto.setMemberName(booking.getMemberName());
-            dto.setGymClass(booking.getClazz());
-            dto.setParticipationDate(booking.getParticipationDate());
-            dto.setClassStartTime(booking.getClazz().getStartTime());
-            return dto;
-        }).collect(Collectors.toList());
+        boolean hasMore = bookings.size() > pageSize;
+        List<BookingView> page = hasMore ? bookings.subList(0, pageSize) : bookings;
+        Long nextCursor = hasMore ? page.get(page.size() - 1).bookingId() : null;
+
+        // Fetch the details of each referenced class once, however many bookings point at it
+        Set<Long> classIds = page.stream().map(BookingView::classId).collect(Collectors.toSet());
+        Map<Long, ClassResponseDto> classes = classRepository.findAllById(classIds).stream()
+                .collect(Collectors.toMap(ClubClass::getId, this::mapClassToDto));
+
+        // Map the list of booking projections to BookingResponseDto
+        return new BookingPageDto(page.stream().map(this::mapToDto).collect(Collectors.toList()), classes, nextCursor);
+    }
+
+    // Method to hand every matching booking to the consumer one at a time, without holding the result set in
+    // memory. Runs in a read-only transaction for the lifetime of the database cursor.
+    @Timed(value = "gym.bookings.stream", histogram = true)
+    public void streamBookings(String memberName, LocalDate startDate, LocalDate endDate,
+                               Consumer<BookingResponseDto> consumer) {
+        // Apply the date range only when both ends are given, as the paged search does
+        boolean dateRange = startDate != null && endDate != null;
+
+        // A name no member has matches no bookings
+        Optional<Long> memberId = memberName == null ? Optional.empty() : memberService.findMemberId(memberName);
+        if (memberName != null && memberId.isEmpty()) {
+            return;
+        }
+
+        // Both cursors stay open together, so bookings come out in id order whichever table holds them
+        boolean active = archiveService.mayHoldActive(dateRange ? endDate : null);
+        boolean archived = archiveService.mayHoldArchived(dateRange ? startDate : null);
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<BookingView> activeBookings = active
+                    ? bookingRepository.streamViewsByCriteria(
+                            memberId.orElse(null), dateRange ? startDate : null, dateRange ? endDate : null)
+                    : Stream.empty();
+                 Stream<BookingView> archivedBookings = archived
+                         ? historyRepository.streamViewsByCriteria(memberId.orElse(null),
+                                 dateRange ? HistoricalBooking.monthOf(startDate) : null,
+                                 dateRange ? HistoricalBooking.monthOf(endDate) : null,
+                                 dateRange ? startDate : null, dateRange ? endDate : null)
+                         : Stream.empty()) {
+                mergeById(activeBookings.iterator(), archivedBookings.iterator(),
+                        booking -> consumer.accept(mapToDto(booking)));
+            }
+        });
+    }
+
+    // Page of active bookings after the cursor; null filters are left out
+    private List<BookingView> findActiveViews(Long memberId, LocalDate startDate, LocalDate endDate,
+                                              long cursor, Limit limit) {
+        if (memberId != null && startDate != null) {
+            return bookingRepository.findViewsByMemberIdAndParticipationDateBetweenAfter(
+                    memberId, startDate, endDate, cursor, limit);
+        } else if (memberId != null) {
+            return bookingRepository.findViewsByMemberIdAfter(memberId, cursor, limit);
+        } else if (startDate != null) {
+            return bookingRepository.findViewsByParticipationDateBetweenAfter(startDate, endDate, cursor, limit);
+        }
+        return bookingRepository.findViewsAfter(cursor, limit);
+    }
+
+    // Page of archived bookings after the cursor, reading only the month partitions of the date range
+    private List<BookingView> findArchivedViews(Long memberId, LocalDate startDate, LocalDate endDate,
+                                                long cursor, Limit limit) {
+        if (memberId != null && startDate != null) {
+            return historyRepository.findViewsByMemberIdAndMonthsAndParticipationDateBetweenAfter(memberId,
+                    HistoricalBooking.monthOf(startDate), HistoricalBooking.monthOf(endDate), startDate, endDate,
+                    cursor, limit);
+        } else if (memberId != null) {
+            return historyRepository.findViewsByMemberIdAfter(memberId, cursor, limit);
+        } else if (startDate != null) {
+            return historyRepository.findViewsByMonthsAndParticipationDateBetweenAfter(
+                    HistoricalBooking.monthOf(startDate), HistoricalBooking.monthOf(endDate), startDate, endDate,
+                    cursor, limit);
+        }
+        return historyRepository.findViewsAfter(cursor, limit);
+    }
+
+    // Merge two pages in id order into at most max bookings. A booking archived between the two reads can be
+    // in both, and is kept once.
+    private static List<BookingView> mergeById(List<BookingView> first, List<BookingView> second, int max) {
+        if (second.isEmpty()) {
+            return first;
+        }
+        if (first.isEmpty()) {
+            return second;
+        }
+        List<BookingView> merged = new ArrayList<>(Math.min(max, first.size() + second.size()));
+        mergeById(first.iterator(), second.iterator(), booking -> {
+            if (merged.size() < max) {
+                merged.add(booking);
+            }
+        });
+        return merged;
     }
 
+    // Hand the bookings of two id-ordered iterators to the consumer in id order, each id once
+    private static void mergeById(Iterator<BookingView> first, Iterator<BookingView> second,
+                                  Consumer<BookingView> consumer) {
+        BookingView a = first.hasNext() ? first.next() : null;
+        BookingView b = second.hasNext() ? second.next() : null;
+        while (a != null || b != null) {
+            if (b == null || (a != null && a.bookingId() < b.bookingId())) {
+                consumer.accept(a);
+                a = first.hasNext() ? first.next() : null;
+            } else if (a == null || b.bookingId() < a.bookingId()) {
+                consumer.accept(b);
+                b = second.hasNext() ? second.next() : null;
+            } else {
+                consumer.accept(a);
+                a = first.hasNext() ? first.next() : null;
+                b = second.hasNext() ? second.next() : null;
+            }
+        }
+    }
+
+    // Method for checking the participation date against today and the class schedule without reading the
+    // database, for callers that take the session later
+    void validateParticipationDate(ClubClass clazz, LocalDate participationDate) {
+        checkNotPast(participationDate);
+        sessionService.checkRunsOn(clazz, participationDate);
+    }
+
+    // Private method finding the session of the class on the participation date. A materialized session means
+    // the class runs that day, so only dates past the expansion window are checked against the class schedule.
+    private ClassSession findSession(ClubClass clazz, LocalDate participationDate) {
+        checkNotPast(participationDate);
+        return sessionService.getSession(clazz, participationDate);
+    }
+
+    private void checkNotPast(LocalDate participationDate) {
+        // Ensure the participation date is in the future
+        if (participationDate.isBefore(LocalDate.now())) {
+            throw new InvalidParticipationDateException("Participation date must be in the future.");
+        }
+    }
+
+    // Method to map a Booking entity to a BookingResponseDto for returning to the client
+    BookingResponseDto mapToDto(Booking booking) {
+        return new BookingResponseDto(
+                booking.getId(),
+                booking.getMember().getName(),
+                booking.getClazz().getId(),
+                booking.getParticipationDate(),
+                booking.getClazz().getStartTime()
+        );
+    }
+
+    // Private method to map a booking projection to a BookingResponseDto for returning to the client
+    private BookingResponseDto mapToDto(BookingView booking) {
+        return new BookingResponseDto(
+                booking.bookingId(),
+                booking.memberName(),
+                booking.classId(),
+                booking.participationDate(),
+                booking.classStartTime()
+        );
+    }
+
+    // Private method to map a ClubClass entity to the class details sent alongside a page of bookings
+    private ClassResponseDto mapClassToDto(ClubClass clazz) {
+        return new ClassResponseDto(
+                clazz.getId(),
+                clazz.getName(),
+                clazz.getStartDate(),
+                clazz.getEndDate(),
+                clazz.getStartTime(),
+                clazz.getDuration(),
+                clazz.getCapacity(),
+                WeeklyRecurrence.toDays(clazz.getDaysOfWeek())
+        );
+    }
+
+    // A saved booking, or the waitlist place taken instead when the slot was full, together with the
+    // slot's booked count right after the reservation
+    private record Reservation(Booking booking, WaitlistEntryDto waitlistEntry, int bookedSeats) {
+    }
+
+    // A class and participation date pair that bookings of a batch are grouped by
+    private record SlotKey(Long classId, LocalDate participationDate) {
+    }
 }
@@ -1,28 +1,83 @@
 package com.gymmanagement.gym_management_application.service;
 
+import com.gymmanagement.gym_management_application.cache.ClassCatalogCache;
+import com.gymmanagement.gym_management_application.cache.ClassIntervalIndex;
+import com.gymmanagement.gym_management_application.cache.ClassIntervalIndex.ClassInterval;
 import com.gymmanagement.gym_management_application.dto.ClassDto;
 import com.gymmanagement.gym_management_application.dto.ClassResponseDto;
 import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.WeeklyRecurrence;
+import com.gymmanagement.gym_management_application.events.ClassCreated;
 import com.gymmanagement.gym_management_application.exception.CapacityExceededException;
 import com.gymmanagement.gym_management_application.exception.ValidationException;
 import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class ClassService {
 
     private final ClubClassRepository clubClassRepository;
-
-    public ClassService(ClubClassRepository clubClassRepository) {
+    private final ClassIntervalIndex classIntervalIndex;
+    private final ClassCatalogCache classCatalogCache;
+    private final ClassSessionService sessionService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean verifyOverlapWithDatabase;
+
+    // Makes the overlap check and the insert of a class atomic within this instance
+    private final ReentrantLock createLock = new ReentrantLock();
+
+    public ClassService(ClubClassRepository clubClassRepository, ClassIntervalIndex classIntervalIndex,
+                        ClassCatalogCache classCatalogCache, ClassSessionService sessionService,
+                        OutboxService outboxService, PlatformTransactionManager transactionManager,
+                        @Value("${gym.class-overlap.verify-with-database:false}") boolean verifyOverlapWithDatabase) {
         this.clubClassRepository = clubClassRepository;
+        this.classIntervalIndex = classIntervalIndex;
+        this.classCatalogCache = classCatalogCache;
+        this.sessionService = sessionService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.verifyOverlapWithDatabase = verifyOverlapWithDatabase;
+    }
+
+    // Load every class into the interval index once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadClassIndex() {
+        // Hold off class creation so no class is saved between reading the catalog and publishing the index
+        createLock.lock();
+        try {
+            classIntervalIndex.rebuild(clubClassRepository.findAll());
+        } finally {
+            createLock.unlock();
+        }
+        log.info("Loaded {} classes into the class interval index", classIntervalIndex.size());
     }
 
     // Method to create a new class by validating input details and saving the class
+    @Timed(value = "gym.classes.create", histogram = true)
     public ClassResponseDto createClass(ClassDto classDto) {
+        createLock.lock();
+        try {
+            return validateAndSave(classDto);
+        } finally {
+            createLock.unlock();
+        }
+    }
+
+    private ClassResponseDto validateAndSave(ClassDto classDto) {
         // Validate the class details (e.g., end date, capacity)
         validateClassDetails(classDto);
 
@@ -34,9 +89,20 @@ public class ClassService {
         clazz.setStartTime(classDto.getStartTime());
         clazz.setDuration(classDto.getDuration());
         clazz.setCapacity(classDto.getCapacity());
-
-        // Save the class Details to the database
-        ClubClass savedClass = clubClassRepository.save(clazz);
+        clazz.setDaysOfWeek(WeeklyRecurrence.toMask(classDto.getDaysOfWeek()));
+
+        // Save the class Details to the database with its event, then its sessions for the expansion window
+        ClubClass savedClass = transactionTemplate.execute(status -> {
+            ClubClass saved = clubClassRepository.save(clazz);
+            outboxService.append(ClassCreated.of(saved));
+            return saved;
+        });
+        sessionService.expandClass(savedClass);
+        if (classIntervalIndex.isLoaded()) {
+            classIntervalIndex.add(savedClass);
+        }
+        // The save has committed, so the next catalog read sees the new class
+        classCatalogCache.invalidate();
 
         // Map the saved class Details back to DTO for return
         return mapToDto(savedClass);
@@ -59,19 +125,69 @@ public class ClassService {
             throw new ValidationException("End date must not be before the start date.");
         }
 
+        // Check that the class runs on at least one of its dates
+        int daysOfWeek = WeeklyRecurrence.toMask(classDto.getDaysOfWeek());
+        if (classDto.getStartDate().datesUntil(classDto.getEndDate().plusDays(1)).limit(7)
+                .noneMatch(date -> WeeklyRecurrence.includes(daysOfWeek, date))) {
+            throw new ValidationException("The class does not run on any day between its start and end dates.");
+        }
+
         // Check for overlapping classes in the same date range
-        ClubClass conflictingClass = clubClassRepository.findFirstByStartDateBeforeAndEndDateAfter(
-                classDto.getEndDate(), classDto.getStartDate());
+        ClassConflict conflictingClass = findConflictingClass(classDto);
 
         if (conflictingClass != null) {
             String errorMessage = String.format(
                     "A class already exists in this date range. " +
                             "Conflicting class: Start Date - %s, End Date - %s",
-                    conflictingClass.getStartDate(), conflictingClass.getEndDate());
+                    conflictingClass.startDate(), conflictingClass.endDate());
             throw new ValidationException(errorMessage);
         }
     }
 
+    // Private method to find a class the new one would overlap with, answered by the interval index once it
+    // is loaded. The database query is the fallback before that, and optionally double-checks a clean result.
+    private ClassConflict findConflictingClass(ClassDto classDto) {
+        if (classIntervalIndex.isLoaded()) {
+            List<ClassInterval> conflicts = classIntervalIndex.findConflicts(classDto.getStartDate(),
+                    classDto.getEndDate(), classDto.getStartTime(), classDto.getDuration(),
+                    WeeklyRecurrence.toMask(classDto.getDaysOfWeek()));
+            if (!conflicts.isEmpty()) {
+                return new ClassConflict(conflicts.get(0).startDate(), conflicts.get(0).endDate());
+            }
+            if (!verifyOverlapWithDatabase) {
+                return null;
+            }
+        }
+
+        ClubClass conflictingClass = findConflictingClassInDatabase(classDto);
+        if (conflictingClass == null) {
+            return null;
+        }
+        if (classIntervalIndex.isLoaded()) {
+            // The index missed a class, e.g. one created by another instance; add it so the next check sees it
+            log.warn("Class interval index was missing conflicting class {}", conflictingClass.getId());
+            classIntervalIndex.add(conflictingClass);
+        }
+        return new ClassConflict(conflictingClass.getStartDate(), conflictingClass.getEndDate());
+    }
+
+    private ClubClass findConflictingClassInDatabase(ClassDto classDto) {
+        if (classIntervalIndex.getMode() == ClassIntervalIndex.OverlapMode.DATE) {
+            return clubClassRepository.findFirstByStartDateBeforeAndEndDateAfter(
+                    classDto.getEndDate(), classDto.getStartDate());
+        }
+
+        // Classes on overlapping dates only conflict when they share a day of the week and their daily time windows
+        // overlap too
+        int daysOfWeek = WeeklyRecurrence.toMask(classDto.getDaysOfWeek());
+        return clubClassRepository.findByStartDateBeforeAndEndDateAfter(classDto.getEndDate(), classDto.getStartDate())
+                .stream()
+                .filter(existing -> classIntervalIndex.conflicts(existing, classDto.getStartDate(),
+                        classDto.getEndDate(), classDto.getStartTime(), classDto.getDuration(), daysOfWeek))
+                .findFirst()
+                .orElse(null);
+    }
+
     // Private method to map the saved ClubClass entity to a ClassDto object for returning to the client
     private ClassResponseDto mapToDto(ClubClass clazz) {
         return new ClassResponseDto(
@@ -81,12 +197,25 @@ public class ClassService {
                 clazz.getEndDate(),
                 clazz.getStartTime(),
                 clazz.getDuration(),
-                clazz.getCapacity()
+                clazz.getCapacity(),
+                WeeklyRecurrence.toDays(clazz.getDaysOfWeek())
         );
     }
 
     // Method to retrieve all classes
+    @Timed(value = "gym.classes.list", histogram = true)
     public List<ClassResponseDto> getAllClasses() {
+        return getClassCatalog().classes();
+    }
+
+    // Method to retrieve the catalog snapshot with its serialized response and ETag. Only reads the
+    // database when a class was created since the last snapshot was built.
+    @Timed(value = "gym.classes.catalog", histogram = true)
+    public ClassCatalogCache.Snapshot getClassCatalog() {
+        return classCatalogCache.get(this::loadAllClasses);
+    }
+
+    private List<ClassResponseDto> loadAllClasses() {
         // Fetch all classes from the repository
         List<ClubClass> allClasses = clubClassRepository.findAll();
 
@@ -95,4 +224,8 @@ public class ClassService {
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
+
+    // Date range of a class that a new class would overlap with
+    private record ClassConflict(LocalDate startDate, LocalDate endDate) {
+    }
 }
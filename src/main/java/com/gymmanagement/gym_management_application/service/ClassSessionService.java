@@ -0,0 +1,212 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.dto.ClassSessionDto;
+import com.gymmanagement.gym_management_application.entity.ClassSession;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.WeeklyRecurrence;
+import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
+import com.gymmanagement.gym_management_application.exception.InvalidParticipationDateException;
+import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.repository.ClassSessionRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Materializes the sessions of every class, one row per day it runs, in a rolling window ahead of today. A
+// booking finds its session with one index lookup instead of deriving the class schedule, and calendar views
+// read the sessions as they are. A booking for a date past the window gets its session created on the spot.
+@Service
+@Slf4j
+public class ClassSessionService {
+
+    private static final String INSERT_SESSION = "insert into class_session " +
+            "(class_id, participation_date, capacity, booked) values (?, ?, ?, 0)";
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final ClassSessionRepository sessionRepository;
+    private final ClubClassRepository classRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TimetableService timetableService;
+    private final int windowDays;
+
+    public ClassSessionService(ClassSessionRepository sessionRepository, ClubClassRepository classRepository,
+                               JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               TimetableService timetableService,
+                               @Value("${gym.sessions.window-days:90}") int windowDays) {
+        this.sessionRepository = sessionRepository;
+        this.classRepository = classRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.timetableService = timetableService;
+        this.windowDays = windowDays;
+    }
+
+    // Fill the window once the application has started, rather than waiting for the first scheduled run
+    @EventListener(ApplicationReadyEvent.class)
+    public void expandOnStartup() {
+        expandSessions();
+    }
+
+    // Materialize the sessions of every running class up to the end of the window. Each class resumes from
+    // the date its last expansion reached, so a run only writes the days that have entered the window since.
+    // Returns the number of sessions created.
+    @Scheduled(fixedDelayString = "${gym.sessions.expansion-interval:PT1H}",
+            initialDelayString = "${gym.sessions.expansion-interval:PT1H}")
+    public int expandSessions() {
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusDays(windowDays);
+
+        int created = 0;
+        for (ClubClass clazz : classRepository.findClassesToExpand(today, horizon)) {
+            try {
+                created += expand(clazz, today, horizon);
+            } catch (DataIntegrityViolationException e) {
+                // A booking created one of the sessions in the meantime; the next run picks the class up again
+                log.warn("Could not expand the sessions of class {}, retrying on the next run", clazz.getId(), e);
+            }
+        }
+
+        if (created > 0) {
+            log.info("Expanded {} class sessions up to {}", created, horizon);
+        }
+
+        // Move the timetable on to the new window, which also corrects any seat count that drifted
+        timetableService.refresh();
+        return created;
+    }
+
+    // Materialize the sessions of a newly created class up to the end of the window and add them to the timetable
+    public int expandClass(ClubClass clazz) {
+        LocalDate today = LocalDate.now();
+        int created = expand(clazz, today, today.plusDays(windowDays));
+        timetableService.addClass(clazz.getId());
+        return created;
+    }
+
+    // Session of the class on the date. A date in the window finds the session the expansion job made, which
+    // proves the class runs that day; a date past the window is checked against the class schedule and its
+    // session created. Must be called outside of a transaction: a concurrent insert of the same session fails
+    // on the unique constraint, which simply means another request created the row first.
+    public ClassSession getSession(ClubClass clazz, LocalDate participationDate) {
+        Optional<ClassSession> session = sessionRepository.findByClassIdAndParticipationDate(
+                clazz.getId(), participationDate);
+        if (session.isPresent()) {
+            return session.get();
+        }
+
+        checkRunsOn(clazz, participationDate);
+        try {
+            return sessionRepository.saveAndFlush(
+                    new ClassSession(null, clazz.getId(), participationDate, clazz.getCapacity(), 0));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race to create the row, the winner's row is just as good
+            return sessionRepository.findByClassIdAndParticipationDate(clazz.getId(), participationDate)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    // Method for checking a participation date against the class date range and the days of the week it runs on
+    public void checkRunsOn(ClubClass clazz, LocalDate participationDate) {
+        // Check if the end date is before the start date
+        if (clazz.getEndDate().isBefore(clazz.getStartDate())) {
+            throw new ValidationException("End date must not be before the start date.");
+        }
+
+        // Check if the participation date is within the class start and end dates
+        if (participationDate.isBefore(clazz.getStartDate()) ||
+                participationDate.isAfter(clazz.getEndDate())) {
+            throw new InvalidParticipationDateException(String.format(
+                    "Participation date must be on or between the class start date (%s) and end date (%s).",
+                    clazz.getStartDate(), clazz.getEndDate()));
+        }
+
+        // Check if the class runs on the participation date's day of the week
+        if (!WeeklyRecurrence.includes(clazz.getDaysOfWeek(), participationDate)) {
+            throw new InvalidParticipationDateException(String.format(
+                    "Participation date must fall on a day the class runs: %s.",
+                    WeeklyRecurrence.toDays(clazz.getDaysOfWeek()).stream()
+                            .map(Enum::name)
+                            .collect(Collectors.joining(", "))));
+        }
+    }
+
+    // Method to list the sessions of a class between two dates, read from the materialized sessions. The range
+    // defaults to the expansion window and stops at its end.
+    @Timed(value = "gym.classes.sessions", histogram = true)
+    public List<ClassSessionDto> getSessions(Long classId, LocalDate startDate, LocalDate endDate) {
+        ClubClass clazz = classRepository.findById(classId)
+                .orElseThrow(() -> new ClassNotFoundException("Class not found."));
+
+        LocalDate today = LocalDate.now();
+        LocalDate horizon = today.plusDays(windowDays);
+        LocalDate from = startDate == null ? today : startDate;
+        LocalDate to = endDate == null || endDate.isAfter(horizon) ? horizon : endDate;
+        if (endDate != null && endDate.isBefore(from)) {
+            throw new ValidationException("End date must not be before the start date.");
+        }
+
+        return sessionRepository.findByClassIdAndParticipationDateBetweenOrderByParticipationDate(classId, from, to)
+                .stream()
+                .map(session -> new ClassSessionDto(
+                        session.getId(),
+                        classId,
+                        session.getParticipationDate(),
+                        clazz.getStartTime(),
+                        clazz.getDuration(),
+                        session.getCapacity(),
+                        session.getBooked(),
+                        Math.max(0, session.getCapacity() - session.getBooked())))
+                .collect(Collectors.toList());
+    }
+
+    // Insert the missing sessions of the class between where its last expansion stopped and the horizon, and
+    // move its watermark, in one transaction
+    private int expand(ClubClass clazz, LocalDate today, LocalDate horizon) {
+        LocalDate from = clazz.getStartDate().isAfter(today) ? clazz.getStartDate() : today;
+        if (clazz.getSessionsExpandedThrough() != null && !clazz.getSessionsExpandedThrough().isBefore(from)) {
+            from = clazz.getSessionsExpandedThrough().plusDays(1);
+        }
+        LocalDate to = clazz.getEndDate().isBefore(horizon) ? clazz.getEndDate() : horizon;
+        if (from.isAfter(to)) {
+            return 0;
+        }
+
+        // Dates past an earlier window may already have a session, created by a booking
+        Set<LocalDate> existing = sessionRepository.findDatesByClassIdBetween(clazz.getId(), from, to);
+        List<LocalDate> dates = from.datesUntil(to.plusDays(1))
+                .filter(date -> WeeklyRecurrence.includes(clazz.getDaysOfWeek(), date))
+                .filter(date -> !existing.contains(date))
+                .collect(Collectors.toList());
+
+        LocalDate expandedThrough = to;
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SESSION, dates, INSERT_BATCH_SIZE, (statement, date) -> {
+                statement.setLong(1, clazz.getId());
+                statement.setDate(2, Date.valueOf(date));
+                statement.setInt(3, clazz.getCapacity());
+            });
+
+            // Changed through the entity so the class's second-level cache entry is updated with the row
+            classRepository.findById(clazz.getId())
+                    .ifPresent(managed -> managed.setSessionsExpandedThrough(expandedThrough));
+        });
+        return dates.size();
+    }
+}
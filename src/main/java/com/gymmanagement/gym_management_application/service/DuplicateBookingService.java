@@ -0,0 +1,118 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.cache.BookingBloomFilter;
+import com.gymmanagement.gym_management_application.entity.Booking;
+import com.gymmanagement.gym_management_application.exception.DuplicateBookingException;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.MemberSlot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Rejects a second active booking of a member for the same class and day. The unique constraint
+// uk_booking_member_slot is what enforces it; the check here only turns the common duplicate into a clean error
+// before a seat is reserved. Most bookings are not duplicates, and for those the Bloom filter answers without
+// the existence query.
+@Service
+@Slf4j
+public class DuplicateBookingService {
+
+    private static final String MEMBER_SLOT_CONSTRAINT = "uk_booking_member_slot";
+
+    private final BookingRepository bookingRepository;
+    private final BookingBloomFilter bloomFilter;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Counter filteredChecks;
+    private final Counter queriedChecks;
+
+    public DuplicateBookingService(BookingRepository bookingRepository, BookingBloomFilter bloomFilter,
+                                   PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.bloomFilter = bloomFilter;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+
+        this.filteredChecks = checks(meterRegistry, "filtered");
+        this.queriedChecks = checks(meterRegistry, "queried");
+        Gauge.builder("gym.bookings.duplicate.filter.insertions", bloomFilter, BookingBloomFilter::insertionCount)
+                .description("Member slots added to the duplicate booking filter since startup")
+                .register(meterRegistry);
+    }
+
+    // Load the member slot of every active booking into the filter once the application has started. Until it is
+    // loaded every check goes to the database.
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFilter() {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<MemberSlot> slots = bookingRepository.streamMemberSlots()) {
+                slots.forEach(slot -> bloomFilter.add(slot.memberId(), slot.classId(), slot.participationDate()));
+            }
+        });
+        bloomFilter.markLoaded();
+        log.info("Loaded {} booked member slots into the duplicate booking filter", bloomFilter.insertionCount());
+    }
+
+    // Throw when the member already holds an active booking for the class on the day
+    public void checkNotBooked(Long memberId, Long classId, LocalDate participationDate) {
+        if (isBooked(memberId, classId, participationDate)) {
+            throw duplicate();
+        }
+    }
+
+    // Whether the member holds an active booking for the class on the day
+    public boolean isBooked(Long memberId, Long classId, LocalDate participationDate) {
+        if (memberId == null) {
+            return false;
+        }
+        if (!bloomFilter.mightContain(memberId, classId, participationDate)) {
+            filteredChecks.increment();
+            return false;
+        }
+        queriedChecks.increment();
+        return bookingRepository.existsByMemberIdAndClazzIdAndParticipationDate(memberId, classId, participationDate);
+    }
+
+    // Add committed bookings to the filter, so later checks for their slots go to the database
+    public void recordBooked(Collection<Booking> bookings) {
+        for (Booking booking : bookings) {
+            recordBooked(booking);
+        }
+    }
+
+    public void recordBooked(Booking booking) {
+        recordBooked(booking.getMember().getId(), booking.getClazz().getId(), booking.getParticipationDate());
+    }
+
+    public void recordBooked(Long memberId, Long classId, LocalDate participationDate) {
+        bloomFilter.add(memberId, classId, participationDate);
+    }
+
+    public DuplicateBookingException duplicate() {
+        return new DuplicateBookingException("Member already has a booking for this class on this date.");
+    }
+
+    // Whether the violation is of the member slot constraint, i.e. a concurrent request booked the slot first
+    public static boolean isDuplicateBooking(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(MEMBER_SLOT_CONSTRAINT);
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gym.bookings.duplicate.checks")
+                .tag("result", result)
+                .description("Duplicate booking checks answered by the filter or by the database")
+                .register(meterRegistry);
+    }
+}
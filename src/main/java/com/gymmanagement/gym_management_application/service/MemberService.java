@@ -0,0 +1,113 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.cache.MemberNameIndex;
+import com.gymmanagement.gym_management_application.dto.MemberDto;
+import com.gymmanagement.gym_management_application.entity.Member;
+import com.gymmanagement.gym_management_application.repository.MemberRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+@Slf4j
+public class MemberService {
+
+    // Number of suggestions returned when the client does not ask for a number, and the most it can ask for
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+
+    private final MemberRepository memberRepository;
+    private final MemberNameIndex memberNameIndex;
+
+    public MemberService(MemberRepository memberRepository, MemberNameIndex memberNameIndex) {
+        this.memberRepository = memberRepository;
+        this.memberNameIndex = memberNameIndex;
+    }
+
+    // Load every member into the name index once the application has started
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadMemberIndex() {
+        memberNameIndex.rebuild(memberRepository.findAllSummaries());
+        log.info("Loaded {} members into the member name index", memberNameIndex.size());
+    }
+
+    // Method to get the member booking under the given name, creating the member on their first booking.
+    // Runs in its own transaction, before the booking transaction that references the member.
+    public Member resolve(String name) {
+        return resolveAll(List.of(name)).get(name);
+    }
+
+    // Method to get the members for many names at once. New members are inserted together in one transaction.
+    public Map<String, Member> resolveAll(Collection<String> names) {
+        Map<String, Member> members = new HashMap<>();
+        List<Member> newMembers = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(names)) {
+            Optional<Long> memberId = findMemberId(name);
+            if (memberId.isPresent()) {
+                members.put(name, new Member(memberId.get(), name));
+            } else {
+                newMembers.add(new Member(null, name));
+            }
+        }
+        if (newMembers.isEmpty()) {
+            return members;
+        }
+
+        List<Member> created;
+        try {
+            created = memberRepository.saveAll(newMembers);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent booking created one of them first: create the rest one at a time
+            created = newMembers.stream().map(member -> create(member.getName())).toList();
+        }
+        for (Member member : created) {
+            memberNameIndex.add(new MemberDto(member.getId(), member.getName()));
+            members.put(member.getName(), member);
+        }
+        return members;
+    }
+
+    // Method to get the id of the member with exactly this name, if there is one
+    public Optional<Long> findMemberId(String name) {
+        Optional<Long> memberId = memberNameIndex.findId(name);
+        if (memberId.isPresent()) {
+            return memberId;
+        }
+
+        // Not indexed yet, e.g. created by another instance: look it up and index it for the next time
+        Optional<Member> member = memberRepository.findByName(name);
+        member.ifPresent(found -> memberNameIndex.add(new MemberDto(found.getId(), found.getName())));
+        return member.map(Member::getId);
+    }
+
+    // Method for the front-desk autocomplete: members with a name or a word of it starting with the prefix,
+    // ignoring case
+    @Timed(value = "gym.members.search", histogram = true)
+    public List<MemberDto> searchMembers(String prefix, Integer limit) {
+        int size = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        if (memberNameIndex.isLoaded()) {
+            return memberNameIndex.findByPrefix(prefix, size);
+        }
+        return memberRepository.findSummariesByNamePrefix(escapeLike(MemberNameIndex.normalize(prefix)),
+                Limit.of(size));
+    }
+
+    // Escape the like wildcards in the prefix, so a name with an underscore or percent sign matches only itself
+    private static String escapeLike(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private Member create(String name) {
+        try {
+            return memberRepository.save(new Member(null, name));
+        } catch (DataIntegrityViolationException e) {
+            return memberRepository.findByName(name).orElseThrow(() -> e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.entity.Booking;
+import com.gymmanagement.gym_management_application.entity.ClassSession;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.repository.ClassSessionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+@Service
+public class OccupancyService {
+
+    private final ClassSessionRepository sessionRepository;
+    private final WaitlistService waitlistService;
+
+    public OccupancyService(ClassSessionRepository sessionRepository, WaitlistService waitlistService) {
+        this.sessionRepository = sessionRepository;
+        this.waitlistService = waitlistService;
+    }
+
+    // Atomically take one seat in the session and return its booked count including it, or empty when full.
+    // The conditional update of the session's row by primary key locks only that row until the surrounding
+    // transaction commits, so the check and the booking insert cannot interleave with another booking.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OptionalInt tryReserve(Long sessionId) {
+        if (sessionRepository.incrementIfBelowCapacity(sessionId) == 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(sessionRepository.findBookedById(sessionId));
+    }
+
+    // Take up to the requested number of seats in the session at once, granting as many as are still free.
+    // The session's row stays locked until the surrounding transaction commits.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public SeatGrant reserveSeats(Long sessionId, int requested) {
+        ClassSession locked = findForUpdate(sessionId);
+
+        int granted = Math.max(0, Math.min(requested, locked.getCapacity() - locked.getBooked()));
+        locked.setBooked(locked.getBooked() + granted);
+        return new SeatGrant(granted, locked.getBooked());
+    }
+
+    // Give up one seat in the session. When members are waiting the seat goes straight to the head of the
+    // waitlist and the booked count stays as it is, otherwise the count drops by one. The session's row stays
+    // locked until the surrounding transaction commits, so the seat cannot be taken by a new booking while a
+    // member is waiting.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public SeatRelease releaseSeat(ClubClass clazz, Long sessionId) {
+        ClassSession locked = findForUpdate(sessionId);
+
+        Optional<Booking> promoted = waitlistService.promoteNext(clazz, locked);
+        if (promoted.isEmpty()) {
+            locked.setBooked(Math.max(0, locked.getBooked() - 1));
+        }
+        return new SeatRelease(promoted.orElse(null), locked.getBooked());
+    }
+
+    private ClassSession findForUpdate(Long sessionId) {
+        return sessionRepository.findForUpdate(sessionId)
+                .orElseThrow(() -> new IllegalStateException("Session " + sessionId + " does not exist."));
+    }
+
+    // Number of seats granted by reserveSeats and the session's booked count after granting them
+    public record SeatGrant(int granted, int bookedSeats) {
+    }
+
+    // Booking made for the promoted waitlist member, if any, and the session's booked count after releaseSeat
+    public record SeatRelease(Booking promotedBooking, int bookedSeats) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.dto.EventDto;
+import com.gymmanagement.gym_management_application.entity.OutboxEvent;
+import com.gymmanagement.gym_management_application.events.EventSink;
+import com.gymmanagement.gym_management_application.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Drains the outbox in batches: each event gets the next feed offset in the order the outbox is drained, and
+// the batch is handed to the event sink before the offsets commit. A batch the sink fails on keeps no offsets
+// and is retried on the next run.
+@Service
+@Slf4j
+public class OutboxRelayService {
+
+    private final OutboxEventRepository outboxRepository;
+    private final EventSink eventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter relayed;
+
+    public OutboxRelayService(OutboxEventRepository outboxRepository, EventSink eventSink,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                              @Value("${gym.outbox.relay-batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.eventSink = eventSink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.relayed = Counter.builder("gym.outbox.relayed")
+                .description("Outbox events given a feed offset and handed to the sink")
+                .register(meterRegistry);
+    }
+
+    // Relay every event in the outbox, one batch per transaction. Returns the number of events relayed.
+    @Scheduled(fixedDelayString = "${gym.outbox.relay-interval:500ms}",
+            initialDelayString = "${gym.outbox.relay-interval:500ms}")
+    public int relay() {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> relayBatch());
+            total += moved;
+        } while (moved == batchSize);
+
+        if (total > 0) {
+            relayed.increment(total);
+            log.debug("Relayed {} outbox events", total);
+        }
+        return total;
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxRepository.findUnrelayedForUpdate(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        long offset = outboxRepository.findLastOffset().orElse(0L);
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : batch) {
+            event.setEventOffset(++offset);
+            event.setRelayedAt(now);
+        }
+
+        try {
+            eventSink.publish(batch.stream().map(OutboxService::mapToDto).collect(Collectors.toList()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not publish " + batch.size() + " events to the sink", e);
+        }
+        return batch.size();
+    }
+}
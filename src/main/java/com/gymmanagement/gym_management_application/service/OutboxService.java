@@ -0,0 +1,83 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmanagement.gym_management_application.dto.EventDto;
+import com.gymmanagement.gym_management_application.dto.EventPageDto;
+import com.gymmanagement.gym_management_application.entity.OutboxEvent;
+import com.gymmanagement.gym_management_application.events.DomainEvent;
+import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.repository.OutboxEventRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Transactional outbox of the booking and class changes. Every write appends its events in its own transaction,
+// so an event exists exactly when its change committed; the relay later gives them feed offsets and hands them
+// to the event sink. Consumers read the feed by offset instead of re-querying the bookings.
+@Service
+public class OutboxService {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Append an event to the outbox, in the transaction of the write it describes
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(DomainEvent event) {
+        outboxRepository.save(toOutboxEvent(event, LocalDateTime.now()));
+    }
+
+    // Append the events of a batch of writes, inserted in JDBC batches
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(Collection<? extends DomainEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.saveAll(events.stream().map(event -> toOutboxEvent(event, now)).collect(Collectors.toList()));
+    }
+
+    // Method to read the event feed after an offset, oldest first. Only relayed events have an offset, so the
+    // feed never shows an event ahead of one that is still to come.
+    @Timed(value = "gym.events.feed", histogram = true)
+    public EventPageDto getEvents(Long after, Integer limit) {
+        long afterOffset = after == null ? 0 : after;
+        if (afterOffset < 0) {
+            throw new ValidationException("Offset must not be negative.");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<EventDto> events = outboxRepository.findRelayedAfter(afterOffset, PageRequest.of(0, pageSize)).stream()
+                .map(OutboxService::mapToDto)
+                .collect(Collectors.toList());
+        long nextOffset = events.isEmpty() ? afterOffset : events.get(events.size() - 1).getOffset();
+        return new EventPageDto(events, nextOffset);
+    }
+
+    static EventDto mapToDto(OutboxEvent event) {
+        return new EventDto(event.getEventOffset(), event.getId(), event.getEventType(), event.getAggregateId(),
+                event.getPayload(), event.getCreatedAt());
+    }
+
+    private OutboxEvent toOutboxEvent(DomainEvent event, LocalDateTime createdAt) {
+        try {
+            return new OutboxEvent(null, event.type(), event.aggregateId(), objectMapper.writeValueAsString(event),
+                    createdAt, null, null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.gymmanagement.gym_management_application.cache.Timetable;
+import com.gymmanagement.gym_management_application.dto.TimetableDayDto;
+import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.repository.ClassSessionRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@Slf4j
+public class TimetableService {
+
+    // Days shown when the client gives no end date, and the most one request can ask for
+    private static final int DEFAULT_DAYS = 7;
+    private static final int MAX_DAYS = 31;
+
+    private final Timetable timetable;
+    private final ClassSessionRepository sessionRepository;
+    private final int windowDays;
+
+    // Keeps two rebuilds from interleaving their swaps
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public TimetableService(Timetable timetable, ClassSessionRepository sessionRepository,
+                            @Value("${gym.sessions.window-days:90}") int windowDays) {
+        this.timetable = timetable;
+        this.sessionRepository = sessionRepository;
+        this.windowDays = windowDays;
+    }
+
+    // Rebuild the timetable from the materialized sessions, from today to the end of the session window
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            LocalDate today = LocalDate.now();
+            timetable.rebuild(today, windowDays + 1,
+                    sessionRepository.findViewsBetween(today, today.plusDays(windowDays)));
+        } finally {
+            refreshLock.unlock();
+        }
+        log.debug("Rebuilt the timetable for the next {} days", windowDays);
+    }
+
+    // Add the sessions of a class whose sessions were just materialized
+    public void addClass(Long classId) {
+        if (!timetable.isLoaded()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        timetable.addSessions(sessionRepository.findViewsByClassIdBetween(classId, today, today.plusDays(windowDays)));
+    }
+
+    // Method to read the timetable day by day, each day listing its sessions with their remaining seats. The
+    // range defaults to the week from today; days before today or past the session window list no sessions.
+    @Timed(value = "gym.timetable", histogram = true)
+    public List<TimetableDayDto> getTimetable(LocalDate from, LocalDate to) {
+        LocalDate startDate = from == null ? LocalDate.now() : from;
+        LocalDate endDate = to == null ? startDate.plusDays(DEFAULT_DAYS - 1) : to;
+        if (endDate.isBefore(startDate)) {
+            throw new ValidationException("End date must not be before the start date.");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_DAYS) {
+            throw new ValidationException("The timetable can be read for at most " + MAX_DAYS + " days at a time.");
+        }
+
+        // Only before the startup expansion has built it
+        if (!timetable.isLoaded()) {
+            refresh();
+        }
+
+        List<TimetableDayDto> days = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            days.add(new TimetableDayDto(date, timetable.getDay(date)));
+        }
+        return days;
+    }
+}
@@ -0,0 +1,664 @@
+package com.gymmanagement.gym_management_application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.dto.WaitlistEntryDto;
+import com.gymmanagement.gym_management_application.entity.Booking;
+import com.gymmanagement.gym_management_application.entity.ClassSession;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.Member;
+import com.gymmanagement.gym_management_application.events.BookingCreated;
+import com.gymmanagement.gym_management_application.exception.BookingQueueFullException;
+import com.gymmanagement.gym_management_application.exception.BookingWaitlistedException;
+import com.gymmanagement.gym_management_application.exception.ClassNotFoundException;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.repository.MemberSlot;
+import com.gymmanagement.gym_management_application.writebehind.BookingIdAllocator;
+import com.gymmanagement.gym_management_application.writebehind.BookingJournal;
+import com.gymmanagement.gym_management_application.writebehind.PendingBooking;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Write-behind booking pipeline, used by POST /api/bookings when gym.write-behind.enabled is set. A booking is
+// accepted once its seat is reserved in memory, its id taken from a pre-allocated block of booking_seq and the
+// booking recorded in the local journal; the client gets the id straight away and the insert happens later, in
+// batches, on a single background writer. The queue in between is bounded: when it stays full the request is
+// turned away rather than letting memory grow.
+//
+// Accepted seats count against the slot until their insert commits, on top of the booked count in the seat
+// cache. A slot that is full that way goes through the synchronous BookingService path once its queued
+// bookings are in, so the member gets a freed seat or a waitlist place as usual. Should a synchronous booking
+// take a seat in between, the writer queues the accepted bookings beyond capacity on the waitlist instead.
+// Likewise a member's accepted booking is dropped should the member have booked the slot synchronously first.
+@Service
+@ConditionalOnProperty(name = "gym.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindBookingService implements SmartLifecycle {
+
+    private static final String INSERT_BOOKING = "insert into booking " +
+            "(id, member_id, class_id, participation_date, session_id, status, idempotency_key) " +
+            "values (?, ?, ?, ?, ?, 'ACTIVE', ?)";
+
+    // Must match the allocationSize of booking_seq on the Booking entity
+    private static final int ID_BLOCK_SIZE = 50;
+
+    // How often a flush that keeps failing is tried before its batch is split, a single booking the database
+    // rejects is given up, or, while shutting down, the batch is left to journal recovery
+    private static final int FLUSH_ATTEMPTS = 3;
+    private static final Duration FLUSH_RETRY_DELAY = Duration.ofSeconds(1);
+
+    // Idempotency-Keys whose accepted booking ended up on the waitlist or was dropped, with the outcome a retry
+    // gets; the oldest are forgotten first
+    private static final int SETTLED_KEYS = 10_000;
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ClubClassRepository classRepository;
+    private final OccupancyService occupancyService;
+    private final AvailabilityService availabilityService;
+    private final WaitlistService waitlistService;
+    private final MemberService memberService;
+    private final ClassSessionService sessionService;
+    private final OutboxService outboxService;
+    private final DuplicateBookingService duplicateBookingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingIdAllocator idAllocator;
+    private final BookingJournal journal;
+    private final BlockingQueue<PendingBooking> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+
+    // Seats accepted per slot whose insert has not committed yet
+    private final ConcurrentHashMap<SlotKey, SlotSeats> pendingSeats = new ConcurrentHashMap<>();
+
+    // Member slots accepted whose insert has not committed yet, so a member cannot have a slot accepted twice
+    private final Set<MemberSlot> pendingMemberSlots = ConcurrentHashMap.newKeySet();
+
+    // Result of each accepted request by Idempotency-Key, until its booking can be found in the database
+    private final ConcurrentHashMap<String, CompletableFuture<BookingResponseDto>> pendingRequests =
+            new ConcurrentHashMap<>();
+
+    // Outcome of each accepted request by Idempotency-Key whose booking the writer did not insert
+    private final Map<String, RuntimeException> settledRequests = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RuntimeException> eldest) {
+                    return size() > SETTLED_KEYS;
+                }
+            });
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public WriteBehindBookingService(BookingService bookingService, BookingRepository bookingRepository,
+                                     ClubClassRepository classRepository, OccupancyService occupancyService,
+                                     AvailabilityService availabilityService, WaitlistService waitlistService,
+                                     MemberService memberService, ClassSessionService sessionService,
+                                     OutboxService outboxService, DuplicateBookingService duplicateBookingService,
+                                     JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                     @Value("${gym.write-behind.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${gym.write-behind.batch-size:500}") int batchSize,
+                                     @Value("${gym.write-behind.flush-interval:50ms}") Duration flushInterval,
+                                     @Value("${gym.write-behind.offer-timeout:2s}") Duration offerTimeout,
+                                     @Value("${gym.write-behind.journal:./data/booking-journal.log}") Path journalPath,
+                                     @Value("${gym.write-behind.journal-fsync:true}") boolean journalFsync) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.classRepository = classRepository;
+        this.occupancyService = occupancyService;
+        this.availabilityService = availabilityService;
+        this.waitlistService = waitlistService;
+        this.memberService = memberService;
+        this.sessionService = sessionService;
+        this.outboxService = outboxService;
+        this.duplicateBookingService = duplicateBookingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idAllocator = new BookingIdAllocator(
+                () -> jdbcTemplate.queryForObject("select next value for booking_seq", Long.class), ID_BLOCK_SIZE);
+        this.journal = new BookingJournal(journalPath, objectMapper, journalFsync);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+
+        Gauge.builder("gym.write.behind.queue.size", queue, BlockingQueue::size)
+                .description("Accepted bookings waiting to be inserted")
+                .register(meterRegistry);
+    }
+
+    // Method to accept a booking. Returns the booking with its final id before the booking is in the database.
+    // A request with an Idempotency-Key that was seen before gets the same booking back.
+    @Timed(value = "gym.bookings.submit", histogram = true)
+    public BookingResponseDto submit(BookingDto bookingDto, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return accept(bookingDto, null).booking();
+        }
+
+        // The first request with a key does the work; a concurrent or later retry waits for and shares its result
+        CompletableFuture<BookingResponseDto> result = new CompletableFuture<>();
+        CompletableFuture<BookingResponseDto> earlier = pendingRequests.putIfAbsent(idempotencyKey, result);
+        if (earlier != null) {
+            try {
+                return earlier.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            // Claimed after the writer released the key: the booking was queued on the waitlist or dropped, or it
+            // is in the database by now
+            RuntimeException settled = settledRequests.get(idempotencyKey);
+            if (settled != null) {
+                throw settled;
+            }
+            Optional<Booking> existingBooking = bookingRepository.findByIdempotencyKey(idempotencyKey);
+            Acceptance acceptance = existingBooking.isPresent()
+                    ? new Acceptance(bookingService.mapToDto(existingBooking.get()), false)
+                    : accept(bookingDto, idempotencyKey);
+            result.complete(acceptance.booking());
+
+            // The writer releases the key of a queued booking once it is inserted; any other booking can be
+            // found in the database already
+            if (!acceptance.queued()) {
+                pendingRequests.remove(idempotencyKey, result);
+            }
+            return acceptance.booking();
+        } catch (RuntimeException e) {
+            pendingRequests.remove(idempotencyKey, result);
+            result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Accepted bookings whose insert has not committed yet
+    public int getPendingCount() {
+        return pendingSeats.values().stream().mapToInt(seats -> seats.pending).sum();
+    }
+
+    // Private method taking the seat in memory and handing the booking to the writer
+    private Acceptance accept(BookingDto bookingDto, String idempotencyKey) {
+        // Fetch the class by ID
+        ClubClass clazz = classRepository.findById(bookingDto.getClassId())
+                .orElseThrow(() -> new ClassNotFoundException("Class not found."));
+
+        // Check the participation date against today and the class date range
+        bookingService.validateParticipationDate(clazz, bookingDto.getParticipationDate());
+
+        SlotKey slot = new SlotKey(clazz.getId(), bookingDto.getParticipationDate());
+        if (!reserveSeat(clazz, slot)) {
+            // Full as far as the pipeline can tell: let the slot's accepted bookings land first, then book
+            // synchronously, which takes a seat freed in the meantime or puts the member on the waitlist
+            awaitInserted(slot);
+            return new Acceptance(bookingService.createBooking(bookingDto, idempotencyKey), false);
+        }
+
+        Member member;
+        try {
+            member = memberService.resolve(bookingDto.getMemberName());
+        } catch (RuntimeException e) {
+            releaseSeats(slot, 1);
+            throw e;
+        }
+
+        // Claim the member's slot among the accepted bookings, then check the committed ones
+        MemberSlot memberSlot = new MemberSlot(member.getId(), clazz.getId(), bookingDto.getParticipationDate());
+        if (!pendingMemberSlots.add(memberSlot)) {
+            releaseSeats(slot, 1);
+            throw duplicateBookingService.duplicate();
+        }
+        try {
+            duplicateBookingService.checkNotBooked(member.getId(), clazz.getId(), bookingDto.getParticipationDate());
+        } catch (RuntimeException e) {
+            pendingMemberSlots.remove(memberSlot);
+            releaseSeats(slot, 1);
+            throw e;
+        }
+
+        PendingBooking booking = new PendingBooking(idAllocator.nextId(), member.getId(), member.getName(),
+                clazz.getId(), bookingDto.getParticipationDate(), idempotencyKey);
+        try {
+            journal.append(booking);
+        } catch (RuntimeException e) {
+            pendingMemberSlots.remove(memberSlot);
+            releaseSeats(slot, 1);
+            throw e;
+        }
+
+        // Backpressure: wait a little for room in the queue, then turn the request away
+        boolean queued;
+        try {
+            queued = queue.offer(booking, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            journal.markDiscarded(booking.bookingId());
+            pendingMemberSlots.remove(memberSlot);
+            releaseSeats(slot, 1);
+            throw new BookingQueueFullException("Too many bookings are waiting to be saved. Please try again shortly.");
+        }
+
+        return new Acceptance(new BookingResponseDto(booking.bookingId(), booking.memberName(),
+                booking.classId(), booking.participationDate(), clazz.getStartTime()), true);
+    }
+
+    // Private method taking a seat of the slot in memory, if the committed and accepted bookings leave one
+    private boolean reserveSeat(ClubClass clazz, SlotKey slot) {
+        while (true) {
+            SlotSeats seats = pendingSeats.computeIfAbsent(slot, key -> new SlotSeats());
+            seats.lock.lock();
+            try {
+                // Emptied and dropped from the map since it was looked up: start over with the current one
+                if (pendingSeats.get(slot) != seats) {
+                    continue;
+                }
+                // Read under the slot's lock: the writer records the committed count before it lets the accepted
+                // seats go, so a count read earlier could miss seats that are no longer counted as accepted
+                // either. A cache miss loads the count from the database, holding up only this slot.
+                int booked = availabilityService.getBookedSeats(clazz.getId(), slot.participationDate());
+                if (booked + seats.pending >= clazz.getCapacity()) {
+                    if (seats.pending == 0) {
+                        pendingSeats.remove(slot, seats);
+                    }
+                    return false;
+                }
+                seats.pending++;
+                return true;
+            } finally {
+                seats.lock.unlock();
+            }
+        }
+    }
+
+    private void releaseSeats(SlotKey slot, int released) {
+        SlotSeats seats = pendingSeats.get(slot);
+        if (seats == null) {
+            return;
+        }
+        seats.lock.lock();
+        try {
+            seats.pending = Math.max(0, seats.pending - released);
+            if (seats.pending == 0) {
+                pendingSeats.remove(slot, seats);
+            }
+        } finally {
+            seats.lock.unlock();
+        }
+    }
+
+    // Private method waiting until none of the slot's accepted bookings is left to insert
+    private void awaitInserted(SlotKey slot) {
+        long deadline = System.nanoTime() + offerTimeout.toNanos();
+        while (pendingSeats.containsKey(slot) && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(flushInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Insert recovered bookings before the application takes requests, then start the writer
+    @Override
+    public void start() {
+        List<PendingBooking> unflushed;
+        try {
+            unflushed = journal.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the booking journal", e);
+        }
+        if (!unflushed.isEmpty()) {
+            recover(unflushed);
+        }
+
+        running = true;
+        writer = new Thread(this::runWriter, "booking-write-behind");
+        writer.start();
+    }
+
+    // Stop taking new work, insert what is queued and close the journal
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Could not close the booking journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Start before the web server takes requests and stop after it stopped
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // Replay the journal: bookings whose insert committed before the crash are only marked, the rest inserted
+    // the way the writer inserts a batch, so a booking the database rejects is given up instead of failing the
+    // start on every restart
+    private void recover(List<PendingBooking> unflushed) {
+        List<Long> ids = unflushed.stream().map(PendingBooking::bookingId).collect(Collectors.toList());
+        Set<Long> inserted = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            inserted.addAll(bookingRepository.findExistingIds(ids.subList(from, Math.min(from + batchSize, ids.size()))));
+        }
+        journal.markFlushed(inserted);
+
+        // Records journaled before bookings referenced members by id carry only the name
+        List<PendingBooking> replay = unflushed.stream()
+                .filter(booking -> !inserted.contains(booking.bookingId()))
+                .map(booking -> booking.memberId() != null ? booking : new PendingBooking(booking.bookingId(),
+                        memberService.resolve(booking.memberName()).getId(), booking.memberName(), booking.classId(),
+                        booking.participationDate(), booking.idempotencyKey()))
+                .collect(Collectors.toList());
+        log.info("Recovering {} accepted bookings from the journal, {} of them already inserted",
+                unflushed.size(), inserted.size());
+        for (int from = 0; from < replay.size(); from += batchSize) {
+            try {
+                flushWithRetry(replay.subList(from, Math.min(from + batchSize, replay.size())), false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while recovering, leaving {} accepted bookings to the next start",
+                        replay.size() - from);
+                return;
+            }
+        }
+    }
+
+    private void runWriter() {
+        List<PendingBooking> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingBooking first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flushWithRetry(batch, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Keep the writer alive for the bookings behind this batch; the batch itself stays in the journal
+                log.error("Could not write {} accepted bookings, leaving them to journal recovery", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // A batch that fails is retried, as its bookings were already confirmed to the clients. One that keeps
+    // failing is split in halves, so a booking the database rejects cannot hold up the others, and that booking
+    // is given up once it fails on its own. Other failures, like a lost connection, are retried until they pass.
+    // On shutdown and while recovering the retries are capped and the batch left in the journal for the next
+    // start.
+    //
+    // A failed attempt may have committed all the same, say when the connection dropped while committing. Each
+    // retry, and each half of a split batch, first settles the bookings it finds inserted: tried again, they
+    // would be taken for duplicates of themselves.
+    private void flushWithRetry(List<PendingBooking> batch, boolean retried) throws InterruptedException {
+        List<PendingBooking> remaining = batch;
+        RuntimeException rejection = null;
+        int attempts = 0;
+        while (true) {
+            Flush flush;
+            try {
+                if (retried || attempts > 0) {
+                    remaining = withoutInserted(remaining);
+                    if (remaining.isEmpty()) {
+                        return;
+                    }
+                }
+                flush = rejection == null ? insert(remaining) : null;
+            } catch (RuntimeException e) {
+                attempts++;
+                if (attempts >= FLUSH_ATTEMPTS) {
+                    if (!running && (rejection != null || !isRejected(e))) {
+                        log.error("Leaving {} accepted bookings to journal recovery", remaining.size(), e);
+                        return;
+                    }
+                    if (remaining.size() > 1) {
+                        log.error("Could not insert {} accepted bookings, splitting the batch", remaining.size(), e);
+                        int half = remaining.size() / 2;
+                        flushWithRetry(remaining.subList(0, half), true);
+                        flushWithRetry(remaining.subList(half, remaining.size()), true);
+                        return;
+                    }
+                    if (rejection == null && isRejected(e)) {
+                        // Given up on the next pass, once it is known that none of the attempts inserted it
+                        rejection = e;
+                        continue;
+                    }
+                }
+                log.error("Could not insert {} accepted bookings, retrying", remaining.size(), e);
+                Thread.sleep(FLUSH_RETRY_DELAY.toMillis());
+                continue;
+            }
+
+            if (flush != null) {
+                settle(remaining, flush);
+            } else {
+                fail(remaining.get(0), rejection);
+            }
+            return;
+        }
+    }
+
+    // A booking the database rejects, or one the writer cannot build the insert for, fails the same way on every
+    // attempt; a failure to reach the database or to write the journal may pass once it is back
+    private static boolean isRejected(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException
+                || !(e instanceof DataAccessException || e instanceof TransactionException
+                || e instanceof UncheckedIOException);
+    }
+
+    // Give up an accepted booking: the journal marks it discarded and its seat is let go. Nothing was saved for
+    // it, so a retry of its request books anew. Should the mark not be written, the next start tries the booking
+    // again and gives it up then.
+    private void fail(PendingBooking booking, RuntimeException e) {
+        log.error("Giving up accepted booking {} of member {}, the database rejects it",
+                booking.bookingId(), booking.memberId(), e);
+        try {
+            journal.markDiscarded(booking.bookingId());
+        } catch (UncheckedIOException journalError) {
+            log.error("Could not mark booking {} discarded in the journal", booking.bookingId(), journalError);
+        }
+        releaseSeats(new SlotKey(booking.classId(), booking.participationDate()), 1);
+        pendingMemberSlots.remove(new MemberSlot(booking.memberId(), booking.classId(), booking.participationDate()));
+        if (booking.idempotencyKey() != null) {
+            pendingRequests.remove(booking.idempotencyKey());
+        }
+    }
+
+    // Settle the bookings of the batch found in the database, as a committed batch, and return the others
+    private List<PendingBooking> withoutInserted(List<PendingBooking> batch) {
+        Set<Long> existing = new HashSet<>(bookingRepository.findExistingIds(
+                batch.stream().map(PendingBooking::bookingId).collect(Collectors.toList())));
+        if (existing.isEmpty()) {
+            return batch;
+        }
+
+        List<PendingBooking> inserted = batch.stream()
+                .filter(booking -> existing.contains(booking.bookingId()))
+                .collect(Collectors.toList());
+        Map<SlotKey, Long> seats = inserted.stream().collect(Collectors.groupingBy(
+                booking -> new SlotKey(booking.classId(), booking.participationDate()),
+                LinkedHashMap::new, Collectors.counting()));
+        Map<Long, ClubClass> classes = classRepository.findAllById(
+                        seats.keySet().stream().map(SlotKey::classId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ClubClass::getId, clazz -> clazz));
+
+        // The committed count is read back from each session row, as the insert would have
+        Map<SlotKey, OccupancyService.SeatGrant> grants = new HashMap<>();
+        seats.forEach((slot, count) -> grants.put(slot, new OccupancyService.SeatGrant(count.intValue(),
+                sessionService.getSession(classes.get(slot.classId()), slot.participationDate()).getBooked())));
+
+        log.warn("{} accepted bookings were inserted by an attempt that reported a failure", inserted.size());
+        settle(inserted, new Flush(classes, grants, inserted, Map.of()));
+        return batch.stream()
+                .filter(booking -> !existing.contains(booking.bookingId()))
+                .collect(Collectors.toList());
+    }
+
+    // Insert a batch: the seats of each slot are taken on its session row and all bookings written with one
+    // JDBC batch, in one transaction. Bookings beyond a slot's capacity are queued on its waitlist instead, and
+    // bookings of a slot their member already holds are dropped; a retry of their request gets that outcome.
+    private Flush insert(List<PendingBooking> batch) {
+        Map<SlotKey, List<PendingBooking>> slots = batch.stream().collect(Collectors.groupingBy(
+                booking -> new SlotKey(booking.classId(), booking.participationDate()),
+                LinkedHashMap::new, Collectors.toList()));
+        Map<Long, ClubClass> classes = classRepository.findAllById(
+                        slots.keySet().stream().map(SlotKey::classId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ClubClass::getId, clazz -> clazz));
+
+        // Find every slot's session before the insert transaction starts
+        Map<SlotKey, ClassSession> sessions = new HashMap<>();
+        slots.keySet().forEach(slot -> sessions.put(slot,
+                sessionService.getSession(classes.get(slot.classId()), slot.participationDate())));
+
+        Map<SlotKey, OccupancyService.SeatGrant> grants = new HashMap<>();
+        List<PendingBooking> inserts = new ArrayList<>(batch.size());
+        Map<String, RuntimeException> settled = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            slots.forEach((slot, accepted) -> {
+                ClubClass clazz = classes.get(slot.classId());
+                List<PendingBooking> bookings = new ArrayList<>(accepted.size());
+                for (PendingBooking booking : accepted) {
+                    if (duplicateBookingService.isBooked(booking.memberId(), slot.classId(), slot.participationDate())) {
+                        log.warn("Member {} booked slot {} before accepted booking {} was inserted, dropping it",
+                                booking.memberId(), slot, booking.bookingId());
+                        if (booking.idempotencyKey() != null) {
+                            settled.put(booking.idempotencyKey(), duplicateBookingService.duplicate());
+                        }
+                    } else {
+                        bookings.add(booking);
+                    }
+                }
+                OccupancyService.SeatGrant grant = occupancyService.reserveSeats(
+                        sessions.get(slot).getId(), bookings.size());
+                grants.put(slot, grant);
+                inserts.addAll(bookings.subList(0, grant.granted()));
+                for (PendingBooking overbooked : bookings.subList(grant.granted(), bookings.size())) {
+                    log.warn("Slot {} filled up before accepted booking {} was inserted, queueing it on the waitlist",
+                            slot, overbooked.bookingId());
+                    WaitlistEntryDto waitlistEntry = waitlistService.enqueue(clazz, slot.participationDate(),
+                            new Member(overbooked.memberId(), overbooked.memberName()));
+                    if (overbooked.idempotencyKey() != null) {
+                        settled.put(overbooked.idempotencyKey(), new BookingWaitlistedException(
+                                "Class is already at full capacity. You have been added to the waitlist at " +
+                                        "position " + waitlistEntry.getPosition() + ".", waitlistEntry));
+                    }
+                }
+            });
+            jdbcTemplate.batchUpdate(INSERT_BOOKING, inserts, inserts.size(), (statement, booking) -> {
+                statement.setLong(1, booking.bookingId());
+                statement.setLong(2, booking.memberId());
+                statement.setLong(3, booking.classId());
+                statement.setDate(4, Date.valueOf(booking.participationDate()));
+                statement.setLong(5, sessions.get(new SlotKey(booking.classId(), booking.participationDate())).getId());
+                statement.setString(6, booking.idempotencyKey());
+            });
+            outboxService.appendAll(inserts.stream()
+                    .map(booking -> new BookingCreated(booking.bookingId(), booking.memberId(), booking.classId(),
+                            booking.participationDate(),
+                            sessions.get(new SlotKey(booking.classId(), booking.participationDate())).getId()))
+                    .collect(Collectors.toList()));
+        });
+
+        return new Flush(classes, grants, inserts, settled);
+    }
+
+    // Settle a committed batch. The journal mark is written outside the retried insert: the bookings are in
+    // the database whether or not it is written, and recovery finds them there should it be missing.
+    private void settle(List<PendingBooking> batch, Flush flush) {
+        try {
+            journal.markFlushed(batch.stream().map(PendingBooking::bookingId).collect(Collectors.toList()));
+        } catch (UncheckedIOException e) {
+            log.error("Could not mark {} inserted bookings in the journal", batch.size(), e);
+        }
+
+        // The committed count goes into the seat cache before the accepted seats are let go, so a slot is
+        // never seen with fewer seats taken than it has; the same goes for the member slots and the filter
+        flush.grants().forEach((slot, grant) -> availabilityService.recordBooked(flush.classes().get(slot.classId()),
+                slot.participationDate(), grant.bookedSeats(), grant.granted()));
+        batch.stream()
+                .collect(Collectors.groupingBy(booking -> new SlotKey(booking.classId(), booking.participationDate()),
+                        Collectors.counting()))
+                .forEach((slot, accepted) -> releaseSeats(slot, accepted.intValue()));
+        flush.inserted().forEach(booking -> duplicateBookingService.recordBooked(booking.memberId(),
+                booking.classId(), booking.participationDate()));
+        batch.forEach(booking -> pendingMemberSlots.remove(new MemberSlot(booking.memberId(), booking.classId(),
+                booking.participationDate())));
+        settledRequests.putAll(flush.settled());
+        batch.stream().map(PendingBooking::idempotencyKey).filter(Objects::nonNull).forEach(pendingRequests::remove);
+    }
+
+    // What a committed batch did: the classes of its slots, the seats granted per slot, the bookings inserted and
+    // the outcome a retry gets for each booking that was not
+    private record Flush(Map<Long, ClubClass> classes, Map<SlotKey, OccupancyService.SeatGrant> grants,
+                         List<PendingBooking> inserted, Map<String, RuntimeException> settled) {
+    }
+
+    // The booking returned to the client, and whether its insert was left to the writer
+    private record Acceptance(BookingResponseDto booking, boolean queued) {
+    }
+
+    // A class and participation date pair that accepted seats are counted by
+    private record SlotKey(Long classId, LocalDate participationDate) {
+    }
+
+    // The accepted seats of one slot. The lock is held while a seat is checked against the committed count and
+    // taken, and while seats are let go, so no slot waits on another.
+    private static final class SlotSeats {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile int pending;
+    }
+}
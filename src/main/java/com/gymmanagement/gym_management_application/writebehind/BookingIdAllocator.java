@@ -0,0 +1,36 @@
+package com.gymmanagement.gym_management_application.writebehind;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Hands out booking ids from blocks of booking_seq, the way Hibernate's pooled optimizer does for the Booking
+// entity: the sequence value v reserves the ids (v - blockSize, v], and the first value, 1, reserves only itself.
+// Ids handed out here and ids Hibernate assigns therefore never collide, and only one sequence call is made per
+// block.
+public final class BookingIdAllocator {
+
+    private final LongSupplier sequence;
+    private final int blockSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next = 1;
+    private long last = 0;
+
+    public BookingIdAllocator(LongSupplier sequence, int blockSize) {
+        this.sequence = sequence;
+        this.blockSize = blockSize;
+    }
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next > last) {
+                long hi = sequence.getAsLong();
+                next = Math.max(1, hi - blockSize + 1);
+                last = hi;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.gymmanagement.gym_management_application.writebehind;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Append-only local journal of the bookings accepted by the write-behind pipeline. Each accepted booking is
+// written before the client is answered, and marked once its insert has committed (or once it was given up,
+// before being queued or after the database kept rejecting it). After a crash, the bookings without a mark are
+// the ones still to be inserted.
+//
+// One record per line:
+//   R {json}        booking accepted
+//   F id,id,...     bookings inserted
+//   X id            booking given up
+//
+// The file is cut back to empty whenever no accepted booking is outstanding, so it stays small.
+@Slf4j
+public final class BookingJournal implements Closeable {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    private int outstanding;
+
+    public BookingJournal(Path path, ObjectMapper objectMapper, boolean fsync) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+    }
+
+    // Open the journal for appending and return the accepted bookings it holds without a mark, oldest first.
+    // The file is rewritten to hold just those, so they stay outstanding until they are marked.
+    public List<PendingBooking> open() throws IOException {
+        lock.lock();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            List<PendingBooking> unflushed = Files.exists(path) ? readUnflushed() : List.of();
+
+            // Rewrite through a temporary file so a crash mid-way leaves the old journal in place
+            Path rewritten = path.resolveSibling(path.getFileName() + ".tmp");
+            List<String> lines = new ArrayList<>();
+            for (PendingBooking booking : unflushed) {
+                lines.add("R " + objectMapper.writeValueAsString(booking));
+            }
+            Files.write(rewritten, lines, StandardCharsets.UTF_8);
+            Files.move(rewritten, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            outstanding = unflushed.size();
+            return unflushed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Record an accepted booking. Returns once the record is on disk when fsync is on.
+    public void append(PendingBooking booking) {
+        try {
+            write("R " + objectMapper.writeValueAsString(booking), 1);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Mark bookings whose insert has committed
+    public void markFlushed(Collection<Long> bookingIds) {
+        if (!bookingIds.isEmpty()) {
+            write("F " + bookingIds.stream().map(String::valueOf).collect(Collectors.joining(",")),
+                    -bookingIds.size());
+        }
+    }
+
+    // Mark a booking that was recorded but then given up: turned away before it was queued, or rejected by the
+    // database
+    public void markDiscarded(Long bookingId) {
+        write("X " + bookingId, -1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(String line, int outstandingChange) {
+        lock.lock();
+        try {
+            // Counted only once written, so a record that failed to write does not throw the count off
+            int remaining = outstanding + outstandingChange;
+            if (remaining == 0) {
+                // Nothing left to recover: start over instead of writing the mark
+                channel.truncate(0);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            outstanding = remaining;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the booking journal " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<PendingBooking> readUnflushed() throws IOException {
+        Map<Long, PendingBooking> accepted = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.length() < 3) {
+                continue;
+            }
+            String body = line.substring(2);
+            try {
+                switch (line.charAt(0)) {
+                    case 'R' -> {
+                        PendingBooking booking = objectMapper.readValue(body, PendingBooking.class);
+                        accepted.put(booking.bookingId(), booking);
+                    }
+                    case 'F' -> {
+                        for (String id : body.split(",")) {
+                            accepted.remove(Long.valueOf(id));
+                        }
+                    }
+                    case 'X' -> accepted.remove(Long.valueOf(body));
+                    default -> log.warn("Skipping unknown booking journal record: {}", line);
+                }
+            } catch (IOException | NumberFormatException e) {
+                // Only the last line can be torn, by a crash in the middle of writing it
+                log.warn("Skipping unreadable booking journal record: {}", line);
+            }
+        }
+        return new ArrayList<>(accepted.values());
+    }
+}
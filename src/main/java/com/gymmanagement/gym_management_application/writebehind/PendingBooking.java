@@ -0,0 +1,9 @@
+package com.gymmanagement.gym_management_application.writebehind;
+
+import java.time.LocalDate;
+
+// A booking accepted by the write-behind pipeline whose insert has not been committed yet. The id is final:
+// it is the id the client was given and the one the row is inserted with.
+public record PendingBooking(Long bookingId, Long memberId, String memberName, Long classId,
+                             LocalDate participationDate, String idempotencyKey) {
+}
@@ -0,0 +1,27 @@
+-- A member holds at most one active booking per class and day. Cancelled bookings stay in the table, so the
+-- constraint is on a computed column holding the member id of active bookings only.
+
+-- Duplicates booked before the constraint existed are cancelled, keeping each member's first booking of a slot,
+-- and their seats released
+UPDATE class_session s SET booked = booked - (
+    SELECT COUNT(*) FROM booking b
+    WHERE b.session_id = s.id AND b.status = 'ACTIVE'
+      AND EXISTS (SELECT 1 FROM booking f
+                  WHERE f.member_id = b.member_id AND f.class_id = b.class_id
+                    AND f.participation_date = b.participation_date AND f.status = 'ACTIVE' AND f.id < b.id))
+WHERE s.id IN (
+    SELECT b.session_id FROM booking b
+    WHERE b.status = 'ACTIVE'
+      AND EXISTS (SELECT 1 FROM booking f
+                  WHERE f.member_id = b.member_id AND f.class_id = b.class_id
+                    AND f.participation_date = b.participation_date AND f.status = 'ACTIVE' AND f.id < b.id));
+
+UPDATE booking b SET status = 'CANCELLED', cancelled_at = CURRENT_TIMESTAMP, idempotency_key = NULL
+WHERE b.status = 'ACTIVE'
+  AND EXISTS (SELECT 1 FROM booking f
+              WHERE f.member_id = b.member_id AND f.class_id = b.class_id
+                AND f.participation_date = b.participation_date AND f.status = 'ACTIVE' AND f.id < b.id);
+
+ALTER TABLE booking ADD COLUMN active_member_id BIGINT
+    GENERATED ALWAYS AS (CASE WHEN status = 'ACTIVE' THEN member_id END);
+ALTER TABLE booking ADD CONSTRAINT uk_booking_member_slot UNIQUE (active_member_id, class_id, participation_date);
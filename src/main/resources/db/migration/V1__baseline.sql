@@ -0,0 +1,35 @@
+-- Baseline schema for the file-backed production database (profile "prod")
+
+CREATE SEQUENCE booking_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE club_class (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    start_time TIME(6) NOT NULL,
+    duration INTEGER NOT NULL CHECK (duration >= 1),
+    capacity INTEGER NOT NULL CHECK (capacity >= 1)
+);
+
+CREATE INDEX idx_club_class_end_start ON club_class (end_date, start_date);
+
+CREATE TABLE booking (
+    id BIGINT NOT NULL PRIMARY KEY,
+    member_name VARCHAR(255) NOT NULL,
+    class_id BIGINT NOT NULL,
+    participation_date DATE NOT NULL,
+    CONSTRAINT fk_booking_class FOREIGN KEY (class_id) REFERENCES club_class (id)
+);
+
+CREATE INDEX idx_booking_class_date ON booking (class_id, participation_date);
+CREATE INDEX idx_booking_member_date ON booking (member_name, participation_date);
+CREATE INDEX idx_booking_date ON booking (participation_date);
+
+CREATE TABLE class_occupancy (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    class_id BIGINT NOT NULL,
+    participation_date DATE NOT NULL,
+    booked INTEGER NOT NULL,
+    CONSTRAINT uk_class_occupancy_slot UNIQUE (class_id, participation_date)
+);
@@ -0,0 +1,13 @@
+-- Per-slot FIFO waitlist for full classes
+
+CREATE TABLE waitlist_entry (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    member_name VARCHAR(255) NOT NULL,
+    class_id BIGINT NOT NULL,
+    participation_date DATE NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_waitlist_member_slot UNIQUE (member_name, class_id, participation_date),
+    CONSTRAINT fk_waitlist_class FOREIGN KEY (class_id) REFERENCES club_class (id)
+);
+
+CREATE INDEX idx_waitlist_slot ON waitlist_entry (class_id, participation_date, id);
@@ -0,0 +1,18 @@
+-- Soft-deleted cancellations and the archive they are compacted into
+
+ALTER TABLE booking ADD COLUMN status VARCHAR(16) DEFAULT 'ACTIVE' NOT NULL;
+ALTER TABLE booking ADD COLUMN cancelled_at TIMESTAMP(6);
+
+-- The capacity count only counts active bookings, so the status joins its index
+DROP INDEX idx_booking_class_date;
+CREATE INDEX idx_booking_class_date ON booking (class_id, participation_date, status);
+CREATE INDEX idx_booking_status ON booking (status);
+
+CREATE TABLE booking_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    member_name VARCHAR(255) NOT NULL,
+    class_id BIGINT NOT NULL,
+    participation_date DATE NOT NULL,
+    cancelled_at TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,4 @@
+-- Idempotency-Key of the request that created a booking, so a retried request returns the same booking
+
+ALTER TABLE booking ADD COLUMN idempotency_key VARCHAR(100);
+ALTER TABLE booking ADD CONSTRAINT uk_booking_idempotency_key UNIQUE (idempotency_key);
@@ -0,0 +1,33 @@
+-- Members referenced by id from bookings and waitlist entries, replacing the free-text member_name columns
+
+CREATE SEQUENCE member_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE member (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    CONSTRAINT uk_member_name UNIQUE (name)
+);
+
+-- One member per distinct name booked or queued under so far
+INSERT INTO member (id, name)
+SELECT NEXT VALUE FOR member_seq, name FROM (
+    SELECT member_name AS name FROM booking
+    UNION
+    SELECT member_name FROM waitlist_entry
+);
+
+ALTER TABLE booking ADD COLUMN member_id BIGINT;
+UPDATE booking b SET member_id = (SELECT m.id FROM member m WHERE m.name = b.member_name);
+ALTER TABLE booking ALTER COLUMN member_id SET NOT NULL;
+ALTER TABLE booking ADD CONSTRAINT fk_booking_member FOREIGN KEY (member_id) REFERENCES member (id);
+DROP INDEX idx_booking_member_date;
+ALTER TABLE booking DROP COLUMN member_name;
+CREATE INDEX idx_booking_member_date ON booking (member_id, participation_date);
+
+ALTER TABLE waitlist_entry ADD COLUMN member_id BIGINT;
+UPDATE waitlist_entry w SET member_id = (SELECT m.id FROM member m WHERE m.name = w.member_name);
+ALTER TABLE waitlist_entry ALTER COLUMN member_id SET NOT NULL;
+ALTER TABLE waitlist_entry DROP CONSTRAINT uk_waitlist_member_slot;
+ALTER TABLE waitlist_entry DROP COLUMN member_name;
+ALTER TABLE waitlist_entry ADD CONSTRAINT uk_waitlist_member_slot UNIQUE (member_id, class_id, participation_date);
+ALTER TABLE waitlist_entry ADD CONSTRAINT fk_waitlist_member FOREIGN KEY (member_id) REFERENCES member (id);
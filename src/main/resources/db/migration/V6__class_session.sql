@@ -0,0 +1,25 @@
+-- Materialized class sessions: the per-slot occupancy counters become sessions holding their own capacity, and
+-- bookings reference the session they are for
+
+ALTER TABLE club_class ADD COLUMN days_of_week INTEGER DEFAULT 127 NOT NULL;
+ALTER TABLE club_class ADD COLUMN sessions_expanded_through DATE;
+
+ALTER TABLE class_occupancy RENAME TO class_session;
+ALTER TABLE class_session RENAME CONSTRAINT uk_class_occupancy_slot TO uk_class_session_slot;
+ALTER TABLE class_session ADD COLUMN capacity INTEGER;
+UPDATE class_session s SET capacity = (SELECT c.capacity FROM club_class c WHERE c.id = s.class_id);
+ALTER TABLE class_session ALTER COLUMN capacity SET NOT NULL;
+
+-- Slots booked before their occupancy counter existed get a session counting their active bookings
+INSERT INTO class_session (class_id, participation_date, capacity, booked)
+SELECT b.class_id, b.participation_date, c.capacity, SUM(CASE WHEN b.status = 'ACTIVE' THEN 1 ELSE 0 END)
+FROM booking b JOIN club_class c ON c.id = b.class_id
+WHERE NOT EXISTS (SELECT 1 FROM class_session s
+                  WHERE s.class_id = b.class_id AND s.participation_date = b.participation_date)
+GROUP BY b.class_id, b.participation_date, c.capacity;
+
+ALTER TABLE booking ADD COLUMN session_id BIGINT;
+UPDATE booking b SET session_id = (SELECT s.id FROM class_session s
+                                   WHERE s.class_id = b.class_id AND s.participation_date = b.participation_date);
+ALTER TABLE booking ALTER COLUMN session_id SET NOT NULL;
+ALTER TABLE booking ADD CONSTRAINT fk_booking_session FOREIGN KEY (session_id) REFERENCES class_session (id);
@@ -0,0 +1,20 @@
+-- Attendance rollups: running per-class, per-weekday and per-hour session totals, and the day they run through
+
+CREATE INDEX idx_class_session_date ON class_session (participation_date);
+
+CREATE TABLE attendance_rollup (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    dimension VARCHAR(16) NOT NULL,
+    bucket BIGINT NOT NULL,
+    sessions BIGINT NOT NULL,
+    booked_seats BIGINT NOT NULL,
+    capacity_seats BIGINT NOT NULL,
+    CONSTRAINT uk_attendance_rollup_bucket UNIQUE (dimension, bucket)
+);
+
+-- No day rolled up yet: the first run starts from the earliest session
+CREATE TABLE attendance_rollup_state (
+    id INTEGER NOT NULL PRIMARY KEY,
+    rolled_up_through DATE
+);
+INSERT INTO attendance_rollup_state (id, rolled_up_through) VALUES (1, NULL);
@@ -0,0 +1,14 @@
+-- Transactional outbox of booking and class events; relayed events carry their offset in the event feed
+
+CREATE SEQUENCE outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_event (
+    id BIGINT NOT NULL PRIMARY KEY,
+    event_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload VARCHAR(2000) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    event_offset BIGINT,
+    relayed_at TIMESTAMP(6),
+    CONSTRAINT uk_outbox_event_offset UNIQUE (event_offset)
+);
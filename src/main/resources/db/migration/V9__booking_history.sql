@@ -0,0 +1,15 @@
+-- Active bookings whose participation date has passed are moved out of the booking table into monthly
+-- partitions of booking_history
+
+CREATE TABLE booking_history (
+    id BIGINT NOT NULL PRIMARY KEY,
+    member_id BIGINT NOT NULL,
+    class_id BIGINT NOT NULL,
+    session_id BIGINT NOT NULL,
+    participation_date DATE NOT NULL,
+    archive_month INTEGER NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_booking_history_month_date ON booking_history (archive_month, participation_date);
+CREATE INDEX idx_booking_history_member ON booking_history (member_id, archive_month, participation_date);
@@ -0,0 +1,109 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.admission.KeyedRateLimiter;
+import com.gymmanagement.gym_management_application.exception.RateLimitExceededException;
+import com.gymmanagement.gym_management_application.service.AdmissionControlService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlUnitTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void testTryAcquire_AllowsBurstThenRefillsAtRate() {
+        // Two permits a second with a burst of three
+        KeyedRateLimiter limiter = new KeyedRateLimiter(2, 3, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire("alice"));
+        // Other keys have buckets of their own
+        assertEquals(0, limiter.tryAcquire("bob"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+
+        // Buckets are dropped once they are full again, and start full when next used
+        assertEquals(1, limiter.evictFull());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, limiter.evictFull());
+        assertEquals(0, limiter.size());
+        assertEquals(0, limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    void testAdmit_RejectsOverRateAndOverConcurrencyWithRetryAfter() {
+        AdmissionControlService admissionControl = new AdmissionControlService(new SimpleMeterRegistry(),
+                true, 1, 2, 1000, 1000, 2);
+
+        // The member's burst of two is used up, the third request waits about a second
+        admissionControl.admit("Alice", "10.0.0.1").close();
+        admissionControl.admit("Alice", "10.0.0.1").close();
+        RateLimitExceededException memberLimited = assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admit("Alice", "10.0.0.1"));
+        assertEquals(1, memberLimited.getRetryAfterSeconds());
+
+        // Two requests in flight fill the concurrency limit until one finishes
+        AdmissionControlService.Permit first = admissionControl.admit("Bob", "10.0.0.2");
+        AdmissionControlService.Permit second = admissionControl.admit("Carol", "10.0.0.3");
+        assertThrows(RateLimitExceededException.class, () -> admissionControl.admit(null, "10.0.0.4"));
+        assertEquals(2, admissionControl.getInFlight());
+        first.close();
+        first.close();
+        assertEquals(1, admissionControl.getInFlight());
+        admissionControl.admit(null, "10.0.0.4").close();
+        second.close();
+        assertEquals(0, admissionControl.getInFlight());
+    }
+
+    @Test
+    void testAdmitBatch_ChargesClientPerBookingAndEachMember() {
+        // Members get a burst of two, clients a burst of ten
+        AdmissionControlService admissionControl = new AdmissionControlService(new SimpleMeterRegistry(),
+                true, 1, 2, 1, 10, 10);
+
+        // Six bookings for Alice and Bob take six client tokens and one token of each member
+        admissionControl.admitBatch(List.of("Alice", "Alice", "Bob", "Alice", "Bob", "Alice"), 6, "10.0.0.1").close();
+        RateLimitExceededException clientLimited = assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admitBatch(List.of("Carol"), 5, "10.0.0.1"));
+        assertEquals(1, clientLimited.getRetryAfterSeconds());
+
+        // Alice's last token goes on a single booking, so a batch naming her is turned away and its tokens given
+        // back: Bob and the client still have theirs
+        admissionControl.admit("Alice", "10.0.0.2").close();
+        assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admitBatch(List.of("Bob", "Alice"), 4, "10.0.0.1"));
+        admissionControl.admitBatch(List.of("Bob"), 4, "10.0.0.1").close();
+        assertEquals(0, admissionControl.getInFlight());
+
+        // A batch beyond the client burst is admitted on a full bucket and leaves the client in debt
+        admissionControl.admitBatch(List.of("Dave"), 30, "10.0.0.3").close();
+        RateLimitExceededException inDebt = assertThrows(RateLimitExceededException.class,
+                () -> admissionControl.admit("Erin", "10.0.0.3"));
+        assertTrue(inDebt.getRetryAfterSeconds() >= 20);
+    }
+
+    @Test
+    void testTryAcquire_TakesPermitsBeyondTheBurstOnCredit() {
+        // One permit a second with a burst of ten
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 10, clock::get);
+
+        // Twenty-five permits need a full bucket, then the fifteen taken on credit are paid off first
+        assertEquals(0, limiter.tryAcquire("client", 3));
+        assertEquals(TimeUnit.SECONDS.toNanos(3), limiter.tryAcquire("client", 25));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        assertEquals(0, limiter.tryAcquire("client", 25));
+        assertEquals(TimeUnit.SECONDS.toNanos(16), limiter.tryAcquire("client"));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(16));
+        assertEquals(0, limiter.tryAcquire("client"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.AttendanceReportDto;
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.dto.ClassDto;
+import com.gymmanagement.gym_management_application.dto.ClassUtilizationDto;
+import com.gymmanagement.gym_management_application.dto.UtilizationDto;
+import com.gymmanagement.gym_management_application.service.AnalyticsService;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest(properties = {
+        "gym.sessions.window-days=7",
+        // Two classes on the same days at different times
+        "gym.class-overlap.mode=TIME_OF_DAY"
+})
+class AnalyticsTest {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private ClassService classService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void testRollUp_AddsFinishedDaysOnceAndTakesLaterCancellationsOff() {
+        LocalDate today = LocalDate.now();
+        Long morningClassId = classService.createClass(new ClassDto("Morning Yoga", today, today.plusDays(30),
+                LocalTime.of(7, 0), 60, 4, null)).getClassId();
+        Long eveningClassId = classService.createClass(new ClassDto("Evening Spin", today, today.plusDays(30),
+                LocalTime.of(18, 0), 45, 2, null)).getClassId();
+
+        BookingResponseDto cancelled = bookingService.createBooking(
+                new BookingDto("Alice", morningClassId, today, null));
+        bookingService.createBooking(new BookingDto("Bob", morningClassId, today, null));
+        bookingService.createBooking(new BookingDto("Carol", morningClassId, today, null));
+        bookingService.createBooking(new BookingDto("Alice", eveningClassId, today, null));
+
+        // Nothing is rolled up before the job runs; then today is added exactly once
+        assertNull(analyticsService.getWeekdayUtilization().getRolledUpThrough());
+        assertEquals(1, analyticsService.rollUp(today));
+        assertEquals(0, analyticsService.rollUp(today));
+
+        AttendanceReportDto<ClassUtilizationDto> classes = analyticsService.getClassUtilization();
+        assertEquals(today, classes.getRolledUpThrough());
+        assertEquals(List.of(new ClassUtilizationDto(morningClassId, "Morning Yoga", 1, 3, 4, 0.75),
+                new ClassUtilizationDto(eveningClassId, "Evening Spin", 1, 1, 2, 0.5)), classes.getRows());
+        assertEquals(List.of(new UtilizationDto(today.getDayOfWeek().name(), 2, 4, 6, 4.0 / 6)),
+                analyticsService.getWeekdayUtilization().getRows());
+        assertEquals(List.of(new UtilizationDto("07:00", 1, 3, 4, 0.75), new UtilizationDto("18:00", 1, 1, 2, 0.5)),
+                analyticsService.getHourlyUtilization().getRows());
+
+        // A cancellation on a rolled-up day comes off the class, weekday and hour totals
+        bookingService.cancelBooking(cancelled.getBookingId());
+        assertEquals(2, analyticsService.getClassUtilization(morningClassId).getRows().get(0).getBookedSeats());
+        assertEquals(3, analyticsService.getWeekdayUtilization().getRows().get(0).getBookedSeats());
+        assertEquals(2, analyticsService.getHourlyUtilization().getRows().get(0).getBookedSeats());
+
+        // A cancellation on a day not rolled up yet only shows once its day is
+        BookingResponseDto tomorrow = bookingService.createBooking(
+                new BookingDto("Dave", eveningClassId, today.plusDays(1), null));
+        bookingService.cancelBooking(tomorrow.getBookingId());
+        assertEquals(1, analyticsService.getClassUtilization(eveningClassId).getRows().get(0).getBookedSeats());
+        assertEquals(1, analyticsService.rollUp(today.plusDays(1)));
+        assertEquals(new ClassUtilizationDto(eveningClassId, "Evening Spin", 2, 1, 4, 0.25),
+                analyticsService.getClassUtilization(eveningClassId).getRows().get(0));
+    }
+}
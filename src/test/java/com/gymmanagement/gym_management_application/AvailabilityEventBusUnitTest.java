@@ -0,0 +1,30 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.events.AvailabilityEventBus;
+import com.gymmanagement.gym_management_application.events.AvailabilityEventBus.Slot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityEventBusUnitTest {
+
+    @Test
+    void testDrain_CoalescesChangesPerSlot() {
+        AvailabilityEventBus bus = new AvailabilityEventBus();
+        LocalDate date = LocalDate.of(2030, 1, 7);
+        for (int i = 0; i < 100; i++) {
+            bus.publish(1L, date);
+        }
+        bus.publish(1L, date.plusDays(1));
+        bus.publish(2L, date);
+
+        List<Slot> slots = bus.drain();
+        assertEquals(Set.of(new Slot(1L, date), new Slot(1L, date.plusDays(1)), new Slot(2L, date)), Set.copyOf(slots));
+        assertEquals(3, slots.size());
+        assertTrue(bus.drain().isEmpty());
+    }
+}
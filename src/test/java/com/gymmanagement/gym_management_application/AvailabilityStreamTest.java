@@ -0,0 +1,197 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.ClassDto;
+import com.gymmanagement.gym_management_application.events.AvailabilityEventBus;
+import com.gymmanagement.gym_management_application.service.AvailabilityStreamService;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "gym.sessions.window-days=7",
+        "gym.availability-stream.dispatch-interval=20ms",
+        "gym.availability-stream.sender-threads=1",
+        "gym.availability-stream.max-pending-slots=1000",
+        "gym.availability-stream.send-timeout=500ms"
+})
+class AvailabilityStreamTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ClassService classService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private AvailabilityStreamService streamService;
+
+    @Autowired
+    private AvailabilityEventBus eventBus;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void testStream_SendsCurrentAvailabilityThenEachChange() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(1);
+        Long classId = classService.createClass(new ClassDto("Stream Class", date, date.plusDays(7),
+                LocalTime.of(12, 0), 45, 3, null)).getClassId();
+
+        // Collect the data lines of the stream as they arrive
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        CompletableFuture<HttpResponse<Void>> stream = client.sendAsync(
+                HttpRequest.newBuilder(uri("/api/classes/" + classId + "/availability/stream?date=" + date)).build(),
+                responseInfo -> HttpResponse.BodySubscribers.fromLineSubscriber(new LineCollector(events)));
+        try {
+            assertTrue(next(events).contains("\"remainingSeats\":3"));
+            assertEquals(1, streamService.getSubscriberCount());
+
+            bookingService.createBooking(new BookingDto("Alice", classId, date, null));
+            assertTrue(next(events).contains("\"remainingSeats\":2"));
+
+            // A booking for another date of the class is not on this stream
+            bookingService.createBooking(new BookingDto("Bob", classId, date.plusDays(1), null));
+            bookingService.createBooking(new BookingDto("Bob", classId, date, null));
+            String event = next(events);
+            assertTrue(event.contains("\"participationDate\":\"" + date + "\""), event);
+            assertTrue(event.contains("\"remainingSeats\":1"), event);
+        } finally {
+            stream.cancel(true);
+        }
+    }
+
+    @Test
+    void testStream_ClosesStreamOfClientThatStopsReading() throws Exception {
+        // Clear of the other class of this test class, as classes may not share dates
+        LocalDate date = LocalDate.now().plusDays(30);
+        Long classId = classService.createClass(new ClassDto("Stalled Stream Class", date, date.plusDays(60),
+                LocalTime.of(14, 0), 45, 3, null)).getClassId();
+        int otherStreams = streamService.getSubscriberCount();
+
+        // A client that subscribes to every date of the class and never reads the response, and one that reads
+        // the stream of a single date. Plain sockets, so closing them ends the streams on the server as well.
+        try (Socket stalled = openStream("/api/classes/" + classId + "/availability/stream", 1024);
+             Socket reading = openStream("/api/classes/" + classId + "/availability/stream?date=" + date, 0)) {
+            BufferedReader events = new BufferedReader(
+                    new InputStreamReader(reading.getInputStream(), StandardCharsets.UTF_8));
+            nextContaining(events, "\"remainingSeats\":3");
+            assertEquals(otherStreams + 2, streamService.getSubscriberCount());
+
+            // Change every date until the stalled connection stops taking writes and is closed. With a single
+            // sender thread, a write blocked on it would otherwise hold up the other stream as well.
+            awaitSubscriberCount(otherStreams + 1, () -> date.datesUntil(date.plusDays(61))
+                    .forEach(day -> eventBus.publish(classId, day)));
+
+            bookingService.createBooking(new BookingDto("Alice", classId, date, null));
+            nextContaining(events, "\"remainingSeats\":2");
+        }
+
+        // The closed reading stream is found on the next write to it
+        awaitSubscriberCount(otherStreams, () -> eventBus.publish(classId, date));
+    }
+
+    @Test
+    void testStream_UnknownClassIsNotFound() throws Exception {
+        // An EventSource only accepts an event stream, and still gets the JSON error
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                        uri("/api/classes/999999/availability/stream")).header("Accept", "text/event-stream").build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, response.statusCode());
+        assertTrue(response.body().contains("CLASS_NOT_FOUND"));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    // Send a stream request on a new connection, with a small receive buffer when given
+    private Socket openStream(String path, int receiveBufferSize) throws IOException {
+        Socket socket = new Socket();
+        if (receiveBufferSize > 0) {
+            socket.setReceiveBufferSize(receiveBufferSize);
+        }
+        socket.setSoTimeout(10_000);
+        socket.connect(new InetSocketAddress("localhost", port));
+        socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        return socket;
+    }
+
+    // Read the chunked response up to a line containing the text. The chunks may split an event over lines.
+    private static void nextContaining(BufferedReader events, String text) throws IOException {
+        String line;
+        while ((line = events.readLine()) != null) {
+            if (line.contains(text)) {
+                return;
+            }
+        }
+        fail("The stream ended before an event containing " + text);
+    }
+
+    // Repeat the action until the service holds the given number of streams
+    private void awaitSubscriberCount(int count, Runnable action) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (streamService.getSubscriberCount() != count) {
+            assertTrue(System.nanoTime() < deadline, "Expected " + count + " open streams");
+            action.run();
+            Thread.sleep(20);
+        }
+    }
+
+    private static String next(BlockingQueue<String> events) throws InterruptedException {
+        String event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event, "No availability event within 10 seconds");
+        return event;
+    }
+
+    // Keeps the data lines of the event stream
+    private record LineCollector(BlockingQueue<String> events) implements Flow.Subscriber<String> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.startsWith("data:")) {
+                events.add(line);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
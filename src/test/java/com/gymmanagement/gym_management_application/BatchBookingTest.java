@@ -0,0 +1,123 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BatchBookingResultDto;
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
+import com.gymmanagement.gym_management_application.service.OccupancyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.gymmanagement.gym_management_application.TestClasses.newClass;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@IsolatedDatabase
+@SpringBootTest
+class BatchBookingTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ClubClassRepository classRepository;
+
+    @Autowired
+    private ClassSessionService sessionService;
+
+    @MockitoSpyBean
+    private OccupancyService occupancyService;
+
+    @Test
+    void testCreateBookings_ReturnsOneResultPerItemAndReservesEachSlotOnce() {
+        ClubClass spin = classRepository.save(newClass("Spin Class", 10));
+        ClubClass yoga = classRepository.save(newClass("Yoga Class", 10));
+        LocalDate participationDate = LocalDate.now().plusDays(2);
+
+        // Items of the two slots interleaved
+        List<BatchBookingResultDto> results = bookingService.createBookings(List.of(
+                new BookingDto("Alice", spin.getId(), participationDate, null),
+                new BookingDto("Bob", yoga.getId(), participationDate, null),
+                new BookingDto("Carol", spin.getId(), participationDate, null),
+                new BookingDto("Dave", yoga.getId(), participationDate, null),
+                new BookingDto("Erin", spin.getId(), participationDate, null)));
+
+        assertEquals(List.of(0, 1, 2, 3, 4),
+                results.stream().map(BatchBookingResultDto::getIndex).collect(Collectors.toList()));
+        assertTrue(results.stream().allMatch(result -> "success".equals(result.getStatus())));
+        assertEquals(List.of("Alice", "Bob", "Carol", "Dave", "Erin"),
+                results.stream().map(result -> result.getBooking().getMemberName()).collect(Collectors.toList()));
+        assertEquals(yoga.getId(), results.get(3).getBooking().getClassId());
+        assertEquals(5, results.stream().map(result -> result.getBooking().getBookingId()).distinct().count());
+
+        // The seats of each slot are reserved with one call for all of its items
+        Long spinSession = sessionService.getSession(spin, participationDate).getId();
+        Long yogaSession = sessionService.getSession(yoga, participationDate).getId();
+        verify(occupancyService, times(1)).reserveSeats(spinSession, 3);
+        verify(occupancyService, times(1)).reserveSeats(yogaSession, 2);
+        verify(occupancyService, times(2)).reserveSeats(any(), anyInt());
+        assertEquals(3, sessionService.getSession(spin, participationDate).getBooked());
+        assertEquals(2, sessionService.getSession(yoga, participationDate).getBooked());
+    }
+
+    @Test
+    void testCreateBookings_FailsItemsBeyondTheRemainingSeatsInSubmissionOrder() {
+        ClubClass rowing = classRepository.save(newClass("Rowing Class", 3));
+        ClubClass boxing = classRepository.save(newClass("Boxing Class", 3));
+        LocalDate participationDate = LocalDate.now().plusDays(3);
+        bookingService.createBooking(new BookingDto("Frank", rowing.getId(), participationDate, null));
+
+        List<BatchBookingResultDto> results = bookingService.createBookings(List.of(
+                new BookingDto("Grace", rowing.getId(), participationDate, null),
+                new BookingDto("Heidi", rowing.getId(), participationDate, null),
+                new BookingDto("Ivan", boxing.getId(), participationDate, null),
+                new BookingDto("Judy", rowing.getId(), participationDate, null),
+                new BookingDto("Mallory", rowing.getId(), participationDate, null)));
+
+        assertEquals(List.of("success", "success", "success", "failure", "failure"),
+                results.stream().map(BatchBookingResultDto::getStatus).collect(Collectors.toList()));
+        assertEquals("CAPACITY_EXCEEDED", results.get(3).getErrorCode());
+        assertEquals("CAPACITY_EXCEEDED", results.get(4).getErrorCode());
+        assertNull(results.get(4).getBooking());
+        assertEquals(3, sessionService.getSession(rowing, participationDate).getBooked());
+        assertEquals(1, sessionService.getSession(boxing, participationDate).getBooked());
+
+        // Once the slot is known to be full, a later batch fails its items without reserving seats
+        List<BatchBookingResultDto> fullResults = bookingService.createBookings(List.of(
+                new BookingDto("Niaj", rowing.getId(), participationDate, null)));
+        assertEquals("CAPACITY_EXCEEDED", fullResults.get(0).getErrorCode());
+        assertEquals(3, sessionService.getSession(rowing, participationDate).getBooked());
+    }
+
+    @Test
+    void testCreateBookings_FailsInvalidItemsWithoutFailingTheRest() {
+        ClubClass pilates = classRepository.save(newClass("Pilates Class", 10));
+        LocalDate participationDate = LocalDate.now().plusDays(4);
+
+        List<BatchBookingResultDto> results = bookingService.createBookings(List.of(
+                new BookingDto(null, pilates.getId(), participationDate, null),
+                new BookingDto("Olivia", pilates.getId(), LocalDate.now().minusDays(1), null),
+                new BookingDto("Peggy", Long.MAX_VALUE, participationDate, null),
+                new BookingDto("Rupert", pilates.getId(), pilates.getEndDate().plusDays(1), null),
+                new BookingDto("Sybil", pilates.getId(), participationDate, null)));
+
+        assertEquals(List.of("VALIDATION_ERROR", "VALIDATION_ERROR", "CLASS_NOT_FOUND", "INVALID_DATE"),
+                results.subList(0, 4).stream().map(BatchBookingResultDto::getErrorCode).collect(Collectors.toList()));
+        assertTrue(results.get(0).getMessage().contains("memberName: Member name is required."));
+        assertEquals("success", results.get(4).getStatus());
+        assertEquals("Sybil", results.get(4).getBooking().getMemberName());
+        assertEquals(1, sessionService.getSession(pilates, participationDate).getBooked());
+    }
+
+}
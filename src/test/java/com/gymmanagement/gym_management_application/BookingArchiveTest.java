@@ -0,0 +1,132 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingPageDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.entity.Booking;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.HistoricalBooking;
+import com.gymmanagement.gym_management_application.exception.BookingNotFoundException;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.repository.HistoricalBookingRepository;
+import com.gymmanagement.gym_management_application.service.BookingArchiveService;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
+import com.gymmanagement.gym_management_application.service.MemberService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Statistics are counted for the whole session factory, so keep the outbox relay from polling meanwhile
+        "gym.outbox.relay-interval=PT1H"
+})
+class BookingArchiveTest {
+
+    @Autowired
+    private BookingArchiveService archiveService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private HistoricalBookingRepository historyRepository;
+
+    @Autowired
+    private ClubClassRepository classRepository;
+
+    @Autowired
+    private ClassSessionService sessionService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testArchive_MovesPastBookingsAndSearchesReadOnlyTheTablesTheirDatesReach() {
+        LocalDate today = LocalDate.now();
+        ClubClass clazz = new ClubClass();
+        clazz.setName("Pilates");
+        clazz.setStartDate(today.minusDays(60));
+        clazz.setEndDate(today.plusDays(30));
+        clazz.setStartTime(LocalTime.of(10, 0));
+        clazz.setDuration(60);
+        clazz.setCapacity(20);
+        clazz = classRepository.save(clazz);
+
+        // Bookings on past dates are saved directly, as if they had been made before their day came
+        Long oldest = book(clazz, "Alice", today.minusDays(40));
+        Long aliceRecent = book(clazz, "Alice", today.minusDays(10));
+        Long bobRecent = book(clazz, "Bob", today.minusDays(10));
+        Long aliceUpcoming = book(clazz, "Alice", today.plusDays(2));
+        Long bobUpcoming = book(clazz, "Bob", today.plusDays(3));
+        archiveService.loadBounds();
+
+        assertEquals(3, archiveService.archiveBookingsBefore(today));
+        assertEquals(0, archiveService.archiveBookingsBefore(today));
+        assertEquals(List.of(aliceUpcoming, bobUpcoming),
+                bookingRepository.findAll().stream().map(Booking::getId).sorted().collect(Collectors.toList()));
+        HistoricalBooking archived = historyRepository.findById(oldest).orElseThrow();
+        assertEquals(HistoricalBooking.monthOf(today.minusDays(40)), archived.getArchiveMonth());
+
+        // A member's bookings page through both tables in id order
+        BookingPageDto firstPage = bookingService.searchBookings("Alice", null, null, null, 2);
+        BookingPageDto secondPage = bookingService.searchBookings("Alice", null, null, firstPage.getNextCursor(), 2);
+        assertEquals(List.of(oldest, aliceRecent), ids(firstPage));
+        assertEquals(List.of(aliceUpcoming), ids(secondPage));
+        assertNull(secondPage.getNextCursor());
+
+        // A past range reads only the history, an upcoming one only the booking table, each plus the class load
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        assertEquals(List.of(aliceRecent, bobRecent), ids(bookingService.searchBookings(
+                null, today.minusDays(15), today.minusDays(5), null, null)));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        assertEquals(List.of(aliceUpcoming, bobUpcoming), ids(bookingService.searchBookings(
+                null, today, today.plusDays(7), null, null)));
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        // The export streams both tables merged in id order
+        List<Long> streamed = new ArrayList<>();
+        bookingService.streamBookings(null, null, null, booking -> streamed.add(booking.getBookingId()));
+        assertEquals(List.of(oldest, aliceRecent, bobRecent, aliceUpcoming, bobUpcoming), streamed);
+
+        // Archived bookings can no longer be cancelled
+        assertThrows(BookingNotFoundException.class, () -> bookingService.cancelBooking(oldest));
+    }
+
+    private Long book(ClubClass clazz, String memberName, LocalDate participationDate) {
+        Booking booking = new Booking();
+        booking.setMember(memberService.resolve(memberName));
+        booking.setClazz(clazz);
+        booking.setParticipationDate(participationDate);
+        booking.setSessionId(sessionService.getSession(clazz, participationDate).getId());
+        return bookingRepository.save(booking).getId();
+    }
+
+    private static List<Long> ids(BookingPageDto page) {
+        return page.getBookings().stream().map(BookingResponseDto::getBookingId).collect(Collectors.toList());
+    }
+}
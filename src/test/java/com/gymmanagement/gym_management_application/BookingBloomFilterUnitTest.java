@@ -0,0 +1,48 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.cache.BookingBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingBloomFilterUnitTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 5);
+
+    @Test
+    void testMightContain_NoFalseNegativesAndFalsePositivesNearTheConfiguredRate() {
+        BookingBloomFilter filter = new BookingBloomFilter(10_000, 0.01);
+        for (long member = 1; member <= 10_000; member++) {
+            filter.add(member, member % 7, DAY.plusDays(member % 30));
+        }
+        filter.markLoaded();
+
+        for (long member = 1; member <= 10_000; member++) {
+            assertTrue(filter.mightContain(member, member % 7, DAY.plusDays(member % 30)));
+        }
+
+        // Slots never added: the same members on another class
+        int falsePositives = 0;
+        for (long member = 1; member <= 10_000; member++) {
+            if (filter.mightContain(member, 100L, DAY.plusDays(member % 30))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        assertEquals(10_000, filter.insertionCount());
+    }
+
+    @Test
+    void testMightContain_AnswersYesUntilLoaded() {
+        BookingBloomFilter filter = new BookingBloomFilter(1000, 0.01);
+        assertTrue(filter.mightContain(1L, 1L, DAY));
+
+        filter.markLoaded();
+        assertFalse(filter.mightContain(1L, 1L, DAY));
+        filter.add(1L, 1L, DAY);
+        assertTrue(filter.mightContain(1L, 1L, DAY));
+        assertFalse(filter.mightContain(1L, 1L, DAY.plusDays(1)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingCancellationDto;
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.exception.BookingNotFoundException;
+import com.gymmanagement.gym_management_application.exception.BookingWaitlistedException;
+import com.gymmanagement.gym_management_application.repository.ArchivedBookingRepository;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.service.AvailabilityService;
+import com.gymmanagement.gym_management_application.service.BookingCompactionService;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static com.gymmanagement.gym_management_application.TestClasses.newClass;
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest
+class BookingCancellationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private BookingCompactionService compactionService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private ClubClassRepository classRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCancelBooking_ReleasesSeatPromotesWaiterAndIsArchived() {
+        ClubClass savedClass = classRepository.save(newClass("Rowing Class", 1));
+        LocalDate participationDate = LocalDate.now().plusDays(4);
+
+        // The freed seat is available to the next booking straight away, including the cached availability
+        BookingResponseDto alice = book("Alice", savedClass, participationDate);
+        assertEquals(0, availabilityService.getAvailability(savedClass.getId(), participationDate).getRemainingSeats());
+        BookingCancellationDto cancellation = bookingService.cancelBooking(alice.getBookingId());
+        assertEquals(alice.getBookingId(), cancellation.getCancelledBooking().getBookingId());
+        assertNull(cancellation.getPromotedBooking());
+        assertEquals(1, availabilityService.getAvailability(savedClass.getId(), participationDate).getRemainingSeats());
+        assertEquals(0, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+        assertTrue(bookingRepository.findById(alice.getBookingId()).isEmpty());
+
+        // With a member waiting, cancelling hands the seat over to them
+        BookingResponseDto bob = book("Bob", savedClass, participationDate);
+        assertThrows(BookingWaitlistedException.class, () -> book("Carol", savedClass, participationDate));
+        cancellation = bookingService.cancelBooking(bob.getBookingId());
+        assertEquals("Carol", cancellation.getPromotedBooking().getMemberName());
+        assertEquals(1, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+
+        // A booking can only be cancelled once
+        assertThrows(BookingNotFoundException.class, () -> bookingService.cancelBooking(bob.getBookingId()));
+
+        // Compaction moves both cancellations to the archive and leaves the active booking in place
+        assertEquals(2, compactionService.compactCancelledBookings());
+        assertEquals(2, archivedBookingRepository.count());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from booking", Integer.class));
+        assertEquals(0, compactionService.compactCancelledBookings());
+    }
+
+    private BookingResponseDto book(String memberName, ClubClass clazz, LocalDate participationDate) {
+        return bookingService.createBooking(new BookingDto(memberName, clazz.getId(), participationDate, null));
+    }
+}
@@ -0,0 +1,84 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.exception.BookingWaitlistedException;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.repository.WaitlistEntryRepository;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.gymmanagement.gym_management_application.TestClasses.newClass;
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest(properties = {
+        // Losing the race to create a slot's occupancy row is expected here
+        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=off"
+})
+class BookingConcurrencyTest {
+
+    private static final int CAPACITY = 25;
+    private static final int ATTEMPTS = 2000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ClubClassRepository classRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Test
+    void testConcurrentBookings_NeverExceedCapacity() throws Exception {
+        // Prepare a class with a small capacity
+        ClubClass savedClass = classRepository.save(newClass("Spin Class", CAPACITY));
+        LocalDate participationDate = LocalDate.now().plusDays(5);
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger waitlisted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Fire all bookings at the same slot at once
+        for (int i = 0; i < ATTEMPTS; i++) {
+            String memberName = "Member " + i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookingService.createBooking(new BookingDto(memberName, savedClass.getId(), participationDate, null));
+                    booked.incrementAndGet();
+                } catch (BookingWaitlistedException e) {
+                    waitlisted.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Verify that exactly the capacity was booked and everything else was waitlisted
+        assertEquals(CAPACITY, booked.get());
+        assertEquals(ATTEMPTS - CAPACITY, waitlisted.get());
+        assertEquals(ATTEMPTS - CAPACITY, waitlistRepository.count());
+        assertEquals(CAPACITY, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+    }
+}
@@ -0,0 +1,66 @@
+package com.gymmanagement.gym_management_application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gymmanagement.gym_management_application.writebehind.BookingIdAllocator;
+import com.gymmanagement.gym_management_application.writebehind.BookingJournal;
+import com.gymmanagement.gym_management_application.writebehind.PendingBooking;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingJournalUnitTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void testOpen_ReturnsAcceptedBookingsWithoutMarkAfterRestart() throws Exception {
+        Path path = dataDir.resolve("journal.log");
+        LocalDate participationDate = LocalDate.now().plusDays(2);
+
+        BookingJournal journal = new BookingJournal(path, objectMapper, false);
+        assertTrue(journal.open().isEmpty());
+        journal.append(new PendingBooking(1L, 11L, "Alice", 7L, participationDate, "key-1"));
+        journal.append(new PendingBooking(2L, 12L, "Bob", 7L, participationDate, null));
+        journal.append(new PendingBooking(3L, 13L, "Carol", 7L, participationDate, null));
+        journal.markFlushed(List.of(1L));
+        journal.markDiscarded(3L);
+        journal.close();
+
+        // A torn record from a crash mid-write is skipped
+        Files.writeString(path, Files.readString(path) + "R {\"bookingId\":4,\"memb");
+
+        journal = new BookingJournal(path, objectMapper, false);
+        List<PendingBooking> unflushed = journal.open();
+        assertEquals(List.of(new PendingBooking(2L, 12L, "Bob", 7L, participationDate, null)), unflushed);
+
+        // Once nothing is outstanding the journal is cut back to empty
+        journal.markFlushed(List.of(2L));
+        assertEquals(0, Files.size(path));
+        journal.close();
+    }
+
+    @Test
+    void testNextId_HandsOutPooledSequenceBlocks() {
+        AtomicLong sequence = new AtomicLong(-49);
+        BookingIdAllocator allocator = new BookingIdAllocator(() -> sequence.addAndGet(50), 50);
+
+        // The first sequence value, 1, covers only itself; each later value v covers (v - 50, v]
+        assertEquals(1, allocator.nextId());
+        for (long id = 2; id <= 51; id++) {
+            assertEquals(id, allocator.nextId());
+        }
+        assertEquals(52, allocator.nextId());
+        assertEquals(101, sequence.get());
+    }
+}
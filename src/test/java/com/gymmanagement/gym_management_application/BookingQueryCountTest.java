@@ -0,0 +1,141 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingPageDto;
+import com.gymmanagement.gym_management_application.entity.Booking;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.Member;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
+import com.gymmanagement.gym_management_application.service.MemberService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // Statistics are counted for the whole session factory, so keep the outbox relay from polling meanwhile
+        "gym.outbox.relay-interval=PT1H"
+})
+class BookingQueryCountTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ClubClassRepository classRepository;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private ClassSessionService sessionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testFindByMemberName_OneStatementRegardlessOfResultSize() {
+        seedBookings("Small Member", 3);
+        seedBookings("Large Member", 60);
+
+        assertEquals(1, statementsToLoadClassesOf("Small Member"));
+        assertEquals(1, statementsToLoadClassesOf("Large Member"));
+    }
+
+    @Test
+    void testSearchBookings_FixedStatementsRegardlessOfResultSize() {
+        seedBookings("Small Member", 3);
+        seedBookings("Large Member", 60);
+
+        // One statement for the page of projections and one for the distinct classes on it
+        statistics.clear();
+        BookingPageDto small = bookingService.searchBookings("Small Member", null, null, null, 100);
+        long smallStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        BookingPageDto large = bookingService.searchBookings("Large Member", null, null, null, 100);
+        long largeStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(3, small.getBookings().size());
+        assertEquals(60, large.getBookings().size());
+        assertEquals(2, smallStatements);
+        assertEquals(2, largeStatements);
+    }
+
+    // Loads a member's bookings and touches each booking's class and member, returning the SQL statements it took
+    private long statementsToLoadClassesOf(String memberName) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+            List<Booking> bookings = bookingRepository.findByMemberId(memberService.findMemberId(memberName).orElseThrow());
+            bookings.forEach(booking -> {
+                assertNotNull(booking.getClazz().getName());
+                assertNotNull(booking.getMember().getName());
+            });
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    // Spread the member's bookings over several classes so per-row class loads would show up, one booking per
+    // class and day as the member slot constraint allows
+    private void seedBookings(String memberName, int count) {
+        List<ClubClass> classes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ClubClass clazz = new ClubClass();
+            clazz.setName(memberName + " Class " + i);
+            clazz.setStartDate(LocalDate.now().plusDays(1));
+            clazz.setEndDate(LocalDate.now().plusDays(30));
+            clazz.setStartTime(LocalTime.of(8 + i, 0));
+            clazz.setDuration(60);
+            clazz.setCapacity(100);
+            classes.add(classRepository.save(clazz));
+        }
+
+        Member member = memberService.resolve(memberName);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ClubClass clazz = classes.get(i % classes.size());
+            LocalDate participationDate = LocalDate.now().plusDays(1 + i / classes.size());
+            Booking booking = new Booking();
+            booking.setMember(member);
+            booking.setClazz(clazz);
+            booking.setParticipationDate(participationDate);
+            booking.setSessionId(sessionService.getSession(clazz, participationDate).getId());
+            bookings.add(booking);
+        }
+        bookingRepository.saveAll(bookings);
+
+        // Start from a cold second-level cache so cached classes cannot hide per-row loads
+        entityManagerFactory.getCache().evictAll();
+    }
+}
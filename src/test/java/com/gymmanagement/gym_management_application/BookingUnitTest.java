@@ -2,16 +2,24 @@ package com.gymmanagement.gym_management_application;
 
 import com.gymmanagement.gym_management_application.controllers.BookingController;
 import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingPageDto;
 import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
 import com.gymmanagement.gym_management_application.dto.GenericResponse;
+import com.gymmanagement.gym_management_application.exception.DuplicateBookingException;
 import com.gymmanagement.gym_management_application.exception.NoRecordsFoundException;
+import com.gymmanagement.gym_management_application.exception.RateLimitExceededException;
 import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.service.AdmissionControlService;
 import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.WriteBehindBookingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -19,6 +27,7 @@ import org.springframework.validation.FieldError;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,12 +40,22 @@ class BookingUnitTest {
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private AdmissionControlService admissionControl;
+
     @Mock
     private BindingResult bindingResult;
 
+    @Mock
+    private HttpServletRequest request;
+
     @Mock
     private ClubClassRepository classRepository;
 
+    // Has no write-behind service, as when the pipeline is disabled
+    @Mock
+    private ObjectProvider<WriteBehindBookingService> writeBehindBookingService;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -52,10 +71,10 @@ class BookingUnitTest {
         BookingResponseDto bookingResponseDto = new BookingResponseDto();
         bookingResponseDto.setBookingId(1L);
 
-        when(bookingService.createBooking(bookingDto)).thenReturn(bookingResponseDto);
+        when(bookingService.createBooking(bookingDto, null)).thenReturn(bookingResponseDto);
         when(bindingResult.hasErrors()).thenReturn(false);
 
-        ResponseEntity<GenericResponse> response = bookingController.createBooking(bookingDto, bindingResult);
+        ResponseEntity<GenericResponse> response = bookingController.createBooking(bookingDto, bindingResult, null, request);
 
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertNotNull(response.getBody().getData());
@@ -68,29 +87,67 @@ class BookingUnitTest {
         when(bindingResult.getFieldErrors()).thenReturn(List.of(new FieldError("bookingDto", "memberName", "Member Name is required")));
 
         BookingDto bookingDto = new BookingDto();
-        ResponseEntity<GenericResponse> response = bookingController.createBooking(bookingDto, bindingResult);
+        ResponseEntity<GenericResponse> response = bookingController.createBooking(bookingDto, bindingResult, null, request);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertTrue(response.getBody().getMessage().contains("Please provide proper payload"));
     }
 
+    @Test
+    void testCreateBooking_RateLimited() {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setMemberName("John Doe");
+        bookingDto.setClassId(1L);
+        bookingDto.setParticipationDate(LocalDate.now().plusDays(1));
+
+        when(bindingResult.hasErrors()).thenReturn(false);
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(admissionControl.admit("John Doe", "10.0.0.1"))
+                .thenThrow(new RateLimitExceededException("Too many booking requests.", 3));
+
+        ResponseEntity<GenericResponse> response = bookingController.createBooking(bookingDto, bindingResult, null, request);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("RATE_LIMITED", response.getBody().getErrorCode());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void testCreateBooking_Duplicate() {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setMemberName("John Doe");
+        bookingDto.setClassId(1L);
+        bookingDto.setParticipationDate(LocalDate.now().plusDays(1));
+
+        when(bindingResult.hasErrors()).thenReturn(false);
+        when(bookingService.createBooking(bookingDto, null))
+                .thenThrow(new DuplicateBookingException("Member already has a booking for this class on this date."));
+
+        ResponseEntity<GenericResponse> response = bookingController.createBooking(bookingDto, bindingResult, null, request);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("DUPLICATE_BOOKING", response.getBody().getErrorCode());
+    }
+
     @Test
     void testSearchBookings_Success() {
-        List<BookingResponseDto> bookings = List.of(new BookingResponseDto());
-        when(bookingService.searchBookings("John Doe", null, null)).thenReturn(bookings);
+        BookingPageDto bookings = new BookingPageDto(List.of(new BookingResponseDto()), Map.of(), null);
+        when(bookingService.searchBookings("John Doe", null, null, null, null)).thenReturn(bookings);
 
-        ResponseEntity<GenericResponse> response = bookingController.searchBookings("John Doe", null, null);
+        ResponseEntity<GenericResponse> response = bookingController.searchBookings("John Doe", null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(1, ((List) response.getBody().getData()).size());
+        assertEquals(1, ((BookingPageDto) response.getBody().getData()).getBookings().size());
+        assertNull(((BookingPageDto) response.getBody().getData()).getNextCursor());
         assertEquals("Bookings fetched successfully.", response.getBody().getMessage());
     }
 
     @Test
     void testSearchBookings_NoRecordsFound() {
-        when(bookingService.searchBookings("John Doe", null, null)).thenThrow(new NoRecordsFoundException("No records found"));
+        when(bookingService.searchBookings("John Doe", null, null, null, null)).thenThrow(new NoRecordsFoundException("No records found"));
 
-        ResponseEntity<GenericResponse> response = bookingController.searchBookings("John Doe", null, null);
+        ResponseEntity<GenericResponse> response = bookingController.searchBookings("John Doe", null, null, null, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertEquals("No records found", response.getBody().getMessage());
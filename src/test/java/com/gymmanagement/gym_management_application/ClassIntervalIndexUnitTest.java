@@ -0,0 +1,142 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.cache.ClassIntervalIndex;
+import com.gymmanagement.gym_management_application.cache.ClassIntervalIndex.ClassInterval;
+import com.gymmanagement.gym_management_application.cache.ClassIntervalIndex.OverlapMode;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.WeeklyRecurrence;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassIntervalIndexUnitTest {
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void testFindConflicts_TouchingRangesDoNotConflict() {
+        ClassIntervalIndex index = new ClassIntervalIndex(OverlapMode.DATE);
+        index.rebuild(List.of(clubClass(1L, 10, 20, 9)));
+
+        assertTrue(index.findConflicts(today.plusDays(20), today.plusDays(25), LocalTime.of(9, 0), 60,
+                WeeklyRecurrence.EVERY_DAY).isEmpty());
+        assertTrue(index.findConflicts(today.plusDays(5), today.plusDays(10), LocalTime.of(9, 0), 60,
+                WeeklyRecurrence.EVERY_DAY).isEmpty());
+        assertEquals(1, index.findConflicts(today.plusDays(19), today.plusDays(25), LocalTime.of(9, 0), 60,
+                WeeklyRecurrence.EVERY_DAY).size());
+    }
+
+    @Test
+    void testFindConflicts_MatchesBruteForceAfterRebuildAndInserts() {
+        Random random = new Random(42);
+        List<ClubClass> classes = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            int start = random.nextInt(1000);
+            classes.add(clubClass(id, start, start + 1 + random.nextInt(60), 9));
+        }
+
+        // Half loaded in bulk, half inserted one at a time to exercise rebalancing
+        ClassIntervalIndex index = new ClassIntervalIndex(OverlapMode.DATE);
+        index.rebuild(classes.subList(0, 250));
+        classes.subList(250, 500).forEach(index::add);
+        assertEquals(500, index.size());
+
+        for (int query = 0; query < 200; query++) {
+            int start = random.nextInt(1100);
+            LocalDate startDate = today.plusDays(start);
+            LocalDate endDate = today.plusDays(start + 1 + random.nextInt(30));
+
+            Set<Long> expected = classes.stream()
+                    .filter(clazz -> clazz.getStartDate().isBefore(endDate) && clazz.getEndDate().isAfter(startDate))
+                    .map(ClubClass::getId)
+                    .collect(Collectors.toSet());
+            Set<Long> actual = index.findConflicts(startDate, endDate, LocalTime.of(9, 0), 60,
+                            WeeklyRecurrence.EVERY_DAY).stream()
+                    .map(ClassInterval::classId)
+                    .collect(Collectors.toSet());
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testFindConflicts_TimeOfDayMode() {
+        ClassIntervalIndex index = new ClassIntervalIndex(OverlapMode.TIME_OF_DAY);
+        index.rebuild(List.of(clubClass(1L, 0, 30, 9)));
+
+        // Same dates, one hour class at 9:00 against 10:00 and 9:30
+        assertTrue(index.findConflicts(today, today.plusDays(30), LocalTime.of(10, 0), 60,
+                WeeklyRecurrence.EVERY_DAY).isEmpty());
+        assertEquals(1, index.findConflicts(today, today.plusDays(30), LocalTime.of(9, 30), 60,
+                WeeklyRecurrence.EVERY_DAY).size());
+    }
+
+    @Test
+    void testFindConflicts_TimeOfDayModeRequiresACommonDayOfWeek() {
+        ClassIntervalIndex index = new ClassIntervalIndex(OverlapMode.TIME_OF_DAY);
+        ClubClass mondays = clubClass(1L, 0, 30, 9);
+        mondays.setDaysOfWeek(WeeklyRecurrence.toMask(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)));
+        index.rebuild(List.of(mondays));
+
+        // Same dates and hour, but only a class sharing one of the days conflicts
+        int tuesdays = WeeklyRecurrence.toMask(Set.of(DayOfWeek.TUESDAY));
+        int wednesdays = WeeklyRecurrence.toMask(Set.of(DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY));
+        assertTrue(index.findConflicts(today, today.plusDays(30), LocalTime.of(9, 0), 60, tuesdays).isEmpty());
+        assertEquals(1, index.findConflicts(today, today.plusDays(30), LocalTime.of(9, 0), 60, wednesdays).size());
+        assertFalse(index.conflicts(mondays, today, today.plusDays(30), LocalTime.of(9, 0), 60, tuesdays));
+        assertTrue(index.conflicts(mondays, today, today.plusDays(30), LocalTime.of(9, 0), 60, wednesdays));
+    }
+
+    @Test
+    void testFindConflicts_TimeOfDayModeCarriesClassesPastMidnightIntoTheNextDay() {
+        ClassIntervalIndex index = new ClassIntervalIndex(OverlapMode.TIME_OF_DAY);
+        ClubClass lateMondays = clubClass(1L, 0, 30, 23);
+        lateMondays.setStartTime(LocalTime.of(23, 30));
+        lateMondays.setDaysOfWeek(WeeklyRecurrence.toMask(Set.of(DayOfWeek.MONDAY)));
+        index.rebuild(List.of(lateMondays));
+
+        // 23:30 to 00:30 on Mondays takes the first half hour of Tuesdays, but not of any other day
+        int tuesdays = WeeklyRecurrence.toMask(Set.of(DayOfWeek.TUESDAY));
+        int mondays = WeeklyRecurrence.toMask(Set.of(DayOfWeek.MONDAY));
+        assertEquals(1, index.findConflicts(today, today.plusDays(30), LocalTime.MIDNIGHT, 30, tuesdays).size());
+        assertTrue(index.conflicts(lateMondays, today, today.plusDays(30), LocalTime.MIDNIGHT, 30, tuesdays));
+        assertTrue(index.findConflicts(today, today.plusDays(30), LocalTime.MIDNIGHT, 30, mondays).isEmpty());
+        assertFalse(index.conflicts(lateMondays, today, today.plusDays(30), LocalTime.MIDNIGHT, 30, mondays));
+        assertTrue(index.findConflicts(today, today.plusDays(30), LocalTime.of(0, 30), 30, tuesdays).isEmpty());
+    }
+
+    @Test
+    void testFindConflicts_TimeOfDayModeWrapsSundayIntoMonday() {
+        ClassIntervalIndex index = new ClassIntervalIndex(OverlapMode.TIME_OF_DAY);
+        ClubClass mondays = clubClass(1L, 0, 30, 0);
+        mondays.setDaysOfWeek(WeeklyRecurrence.toMask(Set.of(DayOfWeek.MONDAY)));
+        index.rebuild(List.of(mondays));
+
+        // A new class from 23:00 on Sundays for two hours runs into the existing midnight class on Mondays
+        int sundays = WeeklyRecurrence.toMask(Set.of(DayOfWeek.SUNDAY));
+        assertEquals(1, index.findConflicts(today, today.plusDays(30), LocalTime.of(23, 0), 120, sundays).size());
+        assertTrue(index.conflicts(mondays, today, today.plusDays(30), LocalTime.of(23, 0), 120, sundays));
+        assertTrue(index.findConflicts(today, today.plusDays(30), LocalTime.of(23, 0), 60, sundays).isEmpty());
+    }
+
+    private ClubClass clubClass(Long id, int startOffset, int endOffset, int hour) {
+        ClubClass clazz = new ClubClass();
+        clazz.setId(id);
+        clazz.setName("Class " + id);
+        clazz.setStartDate(today.plusDays(startOffset));
+        clazz.setEndDate(today.plusDays(endOffset));
+        clazz.setStartTime(LocalTime.of(hour, 0));
+        clazz.setDuration(60);
+        clazz.setCapacity(10);
+        return clazz;
+    }
+}
@@ -0,0 +1,124 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.dto.ClassDto;
+import com.gymmanagement.gym_management_application.dto.ClassResponseDto;
+import com.gymmanagement.gym_management_application.dto.ClassSessionDto;
+import com.gymmanagement.gym_management_application.dto.TimetableSessionDto;
+import com.gymmanagement.gym_management_application.exception.InvalidParticipationDateException;
+import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClassSessionRepository;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
+import com.gymmanagement.gym_management_application.service.TimetableService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest(properties = {
+        "gym.sessions.window-days=14"
+})
+class ClassSessionTest {
+
+    private static final Set<DayOfWeek> MON_WED_FRI = Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+
+    @Autowired
+    private ClassService classService;
+
+    @Autowired
+    private ClassSessionService sessionService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ClassSessionRepository sessionRepository;
+
+    @Test
+    void testRecurringClass_MaterializesSessionsOnItsDaysAndBooksThem() {
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        ClassResponseDto created = classService.createClass(new ClassDto("Circuit Class", monday,
+                monday.plusWeeks(8), LocalTime.of(6, 0), 45, 2, MON_WED_FRI));
+        assertEquals(MON_WED_FRI, created.getDaysOfWeek());
+
+        // Sessions exist for the class's days up to the end of the window, and another run adds none
+        List<ClassSessionDto> sessions = sessionService.getSessions(created.getClassId(), null, null);
+        assertFalse(sessions.isEmpty());
+        assertTrue(sessions.stream().allMatch(session ->
+                MON_WED_FRI.contains(session.getParticipationDate().getDayOfWeek())));
+        assertFalse(sessions.get(sessions.size() - 1).getParticipationDate().isAfter(LocalDate.now().plusDays(14)));
+        assertEquals(0, sessionService.expandSessions());
+
+        // A booking takes a seat on its session and references it
+        BookingResponseDto booking = bookingService.createBooking(
+                new BookingDto("Alice", created.getClassId(), monday, null));
+        ClassSessionDto mondaySession = sessionService.getSessions(created.getClassId(), monday, monday).get(0);
+        assertEquals(1, mondaySession.getBooked());
+        assertEquals(1, mondaySession.getRemainingSeats());
+        assertEquals(mondaySession.getSessionId(),
+                bookingRepository.findById(booking.getBookingId()).orElseThrow().getSessionId());
+
+        // The timetable lists the class on its days only, with the seat the booking took
+        TimetableSessionDto listed = timetableService.getTimetable(monday, monday).get(0).getSessions().stream()
+                .filter(session -> session.getClassId().equals(created.getClassId()))
+                .findFirst().orElseThrow();
+        assertEquals(1, listed.getRemainingSeats());
+        assertTrue(timetableService.getTimetable(monday.plusDays(1), monday.plusDays(1)).get(0).getSessions().stream()
+                .noneMatch(session -> session.getClassId().equals(created.getClassId())));
+
+        // Cancelling gives the seat back in the timetable
+        bookingService.cancelBooking(booking.getBookingId());
+        assertEquals(2, timetableService.getTimetable(monday, monday).get(0).getSessions().stream()
+                .filter(session -> session.getClassId().equals(created.getClassId()))
+                .findFirst().orElseThrow().getRemainingSeats());
+
+        // The class does not run on Tuesdays, inside or past the window
+        assertThrows(InvalidParticipationDateException.class, () -> bookingService.createBooking(
+                new BookingDto("Alice", created.getClassId(), monday.plusDays(1), null)));
+        assertThrows(InvalidParticipationDateException.class, () -> bookingService.createBooking(
+                new BookingDto("Alice", created.getClassId(), monday.plusWeeks(5).plusDays(1), null)));
+
+        // A Wednesday past the window gets its session when it is first booked
+        LocalDate laterWednesday = monday.plusWeeks(5).plusDays(2);
+        assertTrue(sessionRepository.findByClassIdAndParticipationDate(created.getClassId(), laterWednesday).isEmpty());
+        bookingService.createBooking(new BookingDto("Bob", created.getClassId(), laterWednesday, null));
+        assertEquals(1, sessionRepository.findByClassIdAndParticipationDate(created.getClassId(), laterWednesday)
+                .orElseThrow().getBooked());
+    }
+
+    @Test
+    void testCreateClass_RejectsScheduleWithoutAnySession() {
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        assertThrows(ValidationException.class, () -> classService.createClass(new ClassDto("Weekend Class",
+                monday, monday.plusDays(4), LocalTime.of(20, 0), 45, 2,
+                Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY))));
+    }
+
+    @Test
+    void testGetTimetable_DefaultsToAWeekAndRejectsInvalidRanges() {
+        LocalDate today = LocalDate.now();
+        assertEquals(7, timetableService.getTimetable(null, null).size());
+        assertEquals(today, timetableService.getTimetable(null, null).get(0).getDate());
+        assertThrows(ValidationException.class, () -> timetableService.getTimetable(today, today.minusDays(1)));
+        assertThrows(ValidationException.class, () -> timetableService.getTimetable(today, today.plusDays(31)));
+    }
+}
@@ -1,15 +1,22 @@
 package com.gymmanagement.gym_management_application;
 
+import com.gymmanagement.gym_management_application.cache.ClassCatalogCache;
+import com.gymmanagement.gym_management_application.cache.ClassIntervalIndex;
+import com.gymmanagement.gym_management_application.cache.ClassIntervalIndex.OverlapMode;
 import com.gymmanagement.gym_management_application.dto.ClassDto;
 import com.gymmanagement.gym_management_application.dto.ClassResponseDto;
 import com.gymmanagement.gym_management_application.entity.ClubClass;
 import com.gymmanagement.gym_management_application.exception.ValidationException;
 import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
 import com.gymmanagement.gym_management_application.service.ClassService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
+import com.gymmanagement.gym_management_application.service.OutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -17,7 +24,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class ClubClassUnitTest {
 
@@ -26,10 +33,21 @@ class ClubClassUnitTest {
     @Mock
     private ClubClassRepository clubClassRepository;
 
+    @Mock
+    private ClassSessionService sessionService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        classService = new ClassService(clubClassRepository);
+        classService = new ClassService(clubClassRepository, new ClassIntervalIndex(OverlapMode.DATE),
+                new ClassCatalogCache(Jackson2ObjectMapperBuilder.json().build()), sessionService,
+                outboxService, transactionManager, false);
     }
 
     @Test
@@ -212,6 +230,44 @@ class ClubClassUnitTest {
         assertEquals(class2.getCapacity(), responseDto2.getCapacity());
     }
 
+    @Test
+    void testGetClassCatalog_ReusesSnapshotUntilClassCreated() {
+        ClubClass existingClass = new ClubClass();
+        existingClass.setId(1L);
+        existingClass.setName("Yoga Class");
+        existingClass.setStartDate(LocalDate.now().plusDays(1));
+        existingClass.setEndDate(LocalDate.now().plusDays(2));
+        existingClass.setStartTime(LocalTime.of(10, 0));
+        existingClass.setDuration(60);
+        existingClass.setCapacity(10);
+        when(clubClassRepository.findAll()).thenReturn(List.of(existingClass));
+
+        // Repeated reads share one snapshot and load the catalog once
+        ClassCatalogCache.Snapshot first = classService.getClassCatalog();
+        assertSame(first, classService.getClassCatalog());
+        assertEquals(1, classService.getAllClasses().size());
+        verify(clubClassRepository, times(1)).findAll();
+
+        // Creating a class invalidates the snapshot, and the rebuilt one carries a new ETag
+        ClubClass newClass = new ClubClass();
+        newClass.setId(2L);
+        newClass.setName("Pilates Class");
+        newClass.setStartDate(LocalDate.now().plusDays(5));
+        newClass.setEndDate(LocalDate.now().plusDays(6));
+        newClass.setStartTime(LocalTime.of(10, 0));
+        newClass.setDuration(60);
+        newClass.setCapacity(10);
+        when(clubClassRepository.save(any(ClubClass.class))).thenReturn(newClass);
+        classService.createClass(new ClassDto("Pilates Class", newClass.getStartDate(), newClass.getEndDate(),
+                LocalTime.of(10, 0), 60, 10));
+        when(clubClassRepository.findAll()).thenReturn(List.of(existingClass, newClass));
+
+        ClassCatalogCache.Snapshot second = classService.getClassCatalog();
+        assertEquals(2, second.classes().size());
+        assertNotEquals(first.etag(), second.etag());
+        verify(clubClassRepository, times(2)).findAll();
+    }
+
     @Test
     void testCreateClass_OverlapWithExistingClass() {
         // Prepare test data: a class that overlaps with an existing one
@@ -250,5 +306,71 @@ class ClubClassUnitTest {
                 exception.getMessage());
     }
 
+    @Test
+    void testCreateClass_OverlapDetectedByIndex() {
+        // Load an existing class into the interval index
+        ClubClass existingClass = new ClubClass();
+        existingClass.setId(1L);
+        existingClass.setName("Existing Yoga Class");
+        existingClass.setStartDate(LocalDate.now().plusDays(1));
+        existingClass.setEndDate(LocalDate.now().plusDays(4));
+        existingClass.setStartTime(LocalTime.of(9, 0));
+        existingClass.setDuration(60);
+        existingClass.setCapacity(15);
+        when(clubClassRepository.findAll()).thenReturn(List.of(existingClass));
+        classService.loadClassIndex();
 
-}
\ No newline at end of file
+        ClassDto classDto = new ClassDto(
+                "New Yoga Class",
+                LocalDate.now().plusDays(2),
+                LocalDate.now().plusDays(5),
+                LocalTime.of(10, 0),
+                60,
+                10
+        );
+
+        // Verify the conflict is found without querying the database for overlaps
+        ValidationException exception = assertThrows(ValidationException.class, () -> {
+            classService.createClass(classDto);
+        });
+        assertTrue(exception.getMessage().contains("Start Date - " + existingClass.getStartDate()));
+        verify(clubClassRepository, never()).findFirstByStartDateBeforeAndEndDateAfter(any(), any());
+    }
+
+    @Test
+    void testCreateClass_TimeOfDayModeAllowsSameDatesAtDifferentHours() {
+        classService = new ClassService(clubClassRepository, new ClassIntervalIndex(OverlapMode.TIME_OF_DAY),
+                new ClassCatalogCache(Jackson2ObjectMapperBuilder.json().build()), sessionService,
+                outboxService, transactionManager, false);
+
+        ClubClass morningClass = new ClubClass();
+        morningClass.setId(1L);
+        morningClass.setName("Morning Yoga");
+        morningClass.setStartDate(LocalDate.now().plusDays(1));
+        morningClass.setEndDate(LocalDate.now().plusDays(10));
+        morningClass.setStartTime(LocalTime.of(7, 0));
+        morningClass.setDuration(60);
+        morningClass.setCapacity(15);
+        when(clubClassRepository.findAll()).thenReturn(List.of(morningClass));
+        classService.loadClassIndex();
+
+        ClassDto eveningClass = new ClassDto("Evening Yoga", LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(10), LocalTime.of(18, 0), 60, 10);
+        ClassDto overlappingClass = new ClassDto("Late Morning Yoga", LocalDate.now().plusDays(1),
+                LocalDate.now().plusDays(10), LocalTime.of(7, 30), 60, 10);
+
+        ClubClass savedClass = new ClubClass();
+        savedClass.setId(2L);
+        savedClass.setName(eveningClass.getName());
+        savedClass.setStartDate(eveningClass.getStartDate());
+        savedClass.setEndDate(eveningClass.getEndDate());
+        savedClass.setStartTime(eveningClass.getStartTime());
+        savedClass.setDuration(eveningClass.getDuration());
+        savedClass.setCapacity(eveningClass.getCapacity());
+        when(clubClassRepository.save(any(ClubClass.class))).thenReturn(savedClass);
+
+        // Verify a class at a different hour is accepted and one overlapping the morning slot is rejected
+        assertEquals(2L, classService.createClass(eveningClass).getClassId());
+        assertThrows(ValidationException.class, () -> classService.createClass(overlappingClass));
+    }
+}
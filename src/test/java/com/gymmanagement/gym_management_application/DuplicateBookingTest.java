@@ -0,0 +1,119 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BatchBookingResultDto;
+import com.gymmanagement.gym_management_application.dto.BookingCancellationDto;
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.entity.Booking;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.entity.WaitlistEntry;
+import com.gymmanagement.gym_management_application.exception.DuplicateBookingException;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.repository.WaitlistEntryRepository;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
+import com.gymmanagement.gym_management_application.service.DuplicateBookingService;
+import com.gymmanagement.gym_management_application.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.gymmanagement.gym_management_application.TestClasses.newClass;
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest
+class DuplicateBookingTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ClubClassRepository classRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Autowired
+    private ClassSessionService sessionService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Test
+    void testCreateBooking_RejectsSecondActiveBookingOfMemberForSlot() {
+        ClubClass clazz = classRepository.save(newClass("Spin Class", 10));
+        LocalDate participationDate = LocalDate.now().plusDays(2);
+        BookingDto bookingDto = new BookingDto("Alice", clazz.getId(), participationDate, null);
+
+        BookingResponseDto booked = bookingService.createBooking(bookingDto);
+        assertThrows(DuplicateBookingException.class, () -> bookingService.createBooking(bookingDto));
+        assertEquals(1, sessionService.getSession(clazz, participationDate).getBooked());
+
+        // Another day of the same class is a different slot
+        bookingService.createBooking(new BookingDto("Alice", clazz.getId(), participationDate.plusDays(1), null));
+
+        // Once cancelled, the slot can be booked again
+        bookingService.cancelBooking(booked.getBookingId());
+        bookingService.createBooking(bookingDto);
+        assertEquals(1, sessionService.getSession(clazz, participationDate).getBooked());
+
+        // The database rejects a duplicate that bypasses the check
+        Booking duplicate = new Booking();
+        duplicate.setMember(memberService.resolve("Alice"));
+        duplicate.setClazz(clazz);
+        duplicate.setParticipationDate(participationDate);
+        duplicate.setSessionId(sessionService.getSession(clazz, participationDate).getId());
+        DataIntegrityViolationException violation = assertThrows(DataIntegrityViolationException.class,
+                () -> bookingRepository.save(duplicate));
+        assertTrue(DuplicateBookingService.isDuplicateBooking(violation));
+    }
+
+    @Test
+    void testCreateBookings_FailsRepeatsWithinBatchAndSlotsAlreadyHeld() {
+        ClubClass clazz = classRepository.save(newClass("Rowing Class", 10));
+        LocalDate participationDate = LocalDate.now().plusDays(2);
+        bookingService.createBooking(new BookingDto("Carol", clazz.getId(), participationDate, null));
+
+        List<BatchBookingResultDto> results = bookingService.createBookings(List.of(
+                new BookingDto("Dave", clazz.getId(), participationDate, null),
+                new BookingDto("Dave", clazz.getId(), participationDate, null),
+                new BookingDto("Carol", clazz.getId(), participationDate, null)));
+
+        assertEquals(List.of("success", "failure", "failure"),
+                results.stream().map(BatchBookingResultDto::getStatus).collect(Collectors.toList()));
+        assertEquals("DUPLICATE_BOOKING", results.get(1).getErrorCode());
+        assertEquals("DUPLICATE_BOOKING", results.get(2).getErrorCode());
+        assertEquals(2, sessionService.getSession(clazz, participationDate).getBooked());
+    }
+
+    @Test
+    void testCancelBooking_SkipsWaitingMemberWhoAlreadyHoldsTheSlot() {
+        ClubClass clazz = classRepository.save(newClass("Yoga Class", 2));
+        LocalDate participationDate = LocalDate.now().plusDays(2);
+        bookingService.createBooking(new BookingDto("Erin", clazz.getId(), participationDate, null));
+        BookingResponseDto frank = bookingService.createBooking(
+                new BookingDto("Frank", clazz.getId(), participationDate, null));
+
+        // Erin got queued by a request that raced her booking, ahead of Grace
+        waitlistRepository.save(new WaitlistEntry(null, memberService.resolve("Erin").getId(), clazz.getId(),
+                participationDate, LocalDateTime.now()));
+        waitlistRepository.save(new WaitlistEntry(null, memberService.resolve("Grace").getId(), clazz.getId(),
+                participationDate, LocalDateTime.now()));
+
+        BookingCancellationDto cancellation = bookingService.cancelBooking(frank.getBookingId());
+        assertEquals("Grace", cancellation.getPromotedBooking().getMemberName());
+        assertEquals(0, waitlistRepository.count());
+    }
+
+}
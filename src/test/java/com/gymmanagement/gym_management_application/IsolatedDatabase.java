@@ -0,0 +1,43 @@
+package com.gymmanagement.gym_management_application;
+
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ContextConfigurationAttributes;
+import org.springframework.test.context.ContextCustomizer;
+import org.springframework.test.context.ContextCustomizerFactories;
+import org.springframework.test.context.ContextCustomizerFactory;
+import org.springframework.test.context.MergedContextConfiguration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+
+// Gives the Spring Boot test class an in-memory database of its own, named after the class. Test classes would
+// otherwise share the one named in application.properties, and a context's create-drop schema and test data would
+// leak into the others'.
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ContextCustomizerFactories(IsolatedDatabase.Factory.class)
+public @interface IsolatedDatabase {
+
+    class Factory implements ContextCustomizerFactory {
+
+        @Override
+        public ContextCustomizer createContextCustomizer(Class<?> testClass,
+                                                         List<ContextConfigurationAttributes> configAttributes) {
+            return new DatabaseCustomizer(testClass.getSimpleName());
+        }
+    }
+
+    // A record, so test classes get separate cached contexts by the name of their database
+    record DatabaseCustomizer(String database) implements ContextCustomizer {
+
+        @Override
+        public void customizeContext(ConfigurableApplicationContext context,
+                                     MergedContextConfiguration mergedConfig) {
+            TestPropertyValues.of("spring.datasource.url=jdbc:h2:mem:" + database).applyTo(context);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.cache.MemberNameIndex;
+import com.gymmanagement.gym_management_application.dto.MemberDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberNameIndexUnitTest {
+
+    @Test
+    void testFindByPrefix_MatchesAnyWordIgnoringCaseOncePerMember() {
+        MemberNameIndex index = new MemberNameIndex();
+        index.rebuild(List.of(
+                new MemberDto(1L, "John Smith"),
+                new MemberDto(2L, "Smithers Jones"),
+                new MemberDto(3L, "Alice Smith Smythe"),
+                new MemberDto(4L, "Bob")));
+
+        assertTrue(index.isLoaded());
+        assertEquals(4, index.size());
+        assertEquals(List.of(1L, 3L, 2L), ids(index.findByPrefix("SMITH", 10)));
+        assertEquals(List.of(3L), ids(index.findByPrefix("  alice   smi", 10)));
+        assertEquals(2, index.findByPrefix("smi", 2).size());
+        assertTrue(index.findByPrefix("zed", 10).isEmpty());
+    }
+
+    @Test
+    void testAdd_IgnoresKnownNamesAndFindsExactName() {
+        MemberNameIndex index = new MemberNameIndex();
+        index.add(new MemberDto(1L, "Alice"));
+        index.add(new MemberDto(2L, "Alice"));
+
+        assertEquals(Optional.of(1L), index.findId("Alice"));
+        assertEquals(Optional.empty(), index.findId("alice"));
+        assertEquals(1, index.findByPrefix("al", 10).size());
+        assertFalse(index.isLoaded());
+    }
+
+    private List<Long> ids(List<MemberDto> members) {
+        return members.stream().map(MemberDto::getMemberId).toList();
+    }
+}
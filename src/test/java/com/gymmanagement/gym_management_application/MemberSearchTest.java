@@ -0,0 +1,45 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.cache.MemberNameIndex;
+import com.gymmanagement.gym_management_application.dto.MemberDto;
+import com.gymmanagement.gym_management_application.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+
+@IsolatedDatabase
+@SpringBootTest
+class MemberSearchTest {
+
+    @Autowired
+    private MemberService memberService;
+
+    @MockitoSpyBean
+    private MemberNameIndex memberNameIndex;
+
+    @Test
+    void testSearchMembers_MatchesWildcardCharactersLiterallyBeforeTheIndexIsLoaded() {
+        memberService.resolve("Ann_Lee");
+        memberService.resolve("Annie");
+        memberService.resolve("Ann%Ray");
+        memberService.resolve("Ann\\Bo");
+
+        // Answered by the database query while the index is not loaded
+        doReturn(false).when(memberNameIndex).isLoaded();
+
+        assertEquals(List.of("Ann_Lee"), names(memberService.searchMembers("ann_", null)));
+        assertEquals(List.of("Ann%Ray"), names(memberService.searchMembers("ANN%", null)));
+        assertEquals(List.of("Ann\\Bo"), names(memberService.searchMembers("ann\\", null)));
+        assertEquals(4, memberService.searchMembers("ann", null).size());
+    }
+
+    private static List<String> names(List<MemberDto> members) {
+        return members.stream().map(MemberDto::getName).toList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.gymmanagement.gym_management_application;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IsolatedDatabase
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testPrometheusEndpointExposesServiceTimersAndErrorCounters() throws Exception {
+        mockMvc.perform(get("/api/classes")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"memberName\":\"Alice\",\"classId\":999999,\"participationDate\":\"2099-01-01\"}"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("gym_classes_catalog_seconds_bucket")))
+                .andExpect(content().string(containsString("gym_bookings_create_seconds_count")))
+                .andExpect(content().string(containsString("gym_api_errors_total{application=\"Gym Management Application\",code=\"CLASS_NOT_FOUND\",uri=\"/api/bookings\"} 1.0")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("gym_availability_cache_requests_total")));
+    }
+}
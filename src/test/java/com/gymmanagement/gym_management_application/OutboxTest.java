@@ -0,0 +1,88 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.dto.ClassDto;
+import com.gymmanagement.gym_management_application.dto.EventDto;
+import com.gymmanagement.gym_management_application.dto.EventPageDto;
+import com.gymmanagement.gym_management_application.events.InMemoryEventSink;
+import com.gymmanagement.gym_management_application.exception.BookingWaitlistedException;
+import com.gymmanagement.gym_management_application.exception.ValidationException;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassService;
+import com.gymmanagement.gym_management_application.service.OutboxRelayService;
+import com.gymmanagement.gym_management_application.service.OutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest(properties = {
+        // The test relays by hand
+        "gym.outbox.relay-interval=PT1H"
+})
+class OutboxTest {
+
+    @Autowired
+    private ClassService classService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRelayService relayService;
+
+    @Autowired
+    private InMemoryEventSink eventSink;
+
+    @Test
+    void testRelay_GivesCommittedEventsConsecutiveOffsetsAndPublishesThem() {
+        LocalDate date = LocalDate.now().plusDays(1);
+        Long classId = classService.createClass(new ClassDto("Rowing", date, date.plusDays(7),
+                LocalTime.of(6, 0), 45, 1, null)).getClassId();
+        BookingResponseDto booking = bookingService.createBooking(new BookingDto("Alice", classId, date, null));
+        assertThrows(BookingWaitlistedException.class,
+                () -> bookingService.createBooking(new BookingDto("Bob", classId, date, null)));
+        bookingService.cancelBooking(booking.getBookingId());
+
+        // Nothing is in the feed until the relay ran
+        assertTrue(outboxService.getEvents(0L, null).getEvents().isEmpty());
+        assertEquals(5, relayService.relay());
+        assertEquals(0, relayService.relay());
+
+        List<EventDto> events = outboxService.getEvents(0L, null).getEvents();
+        assertEquals(List.of("ClassCreated", "BookingCreated", "BookingWaitlisted", "BookingCreated",
+                "BookingCancelled"), events.stream().map(EventDto::getType).collect(Collectors.toList()));
+        assertEquals(LongStream.rangeClosed(1, 5).boxed().collect(Collectors.toList()),
+                events.stream().map(EventDto::getOffset).collect(Collectors.toList()));
+        assertEquals(classId, events.get(0).getAggregateId());
+        assertEquals(booking.getBookingId(), events.get(4).getAggregateId());
+        // The cancellation names the booking promoted into the freed seat
+        assertTrue(events.get(4).getPayload().contains("\"promotedBookingId\":" + events.get(3).getAggregateId()));
+
+        // The sink was handed the same events
+        assertEquals(events.stream().map(EventDto::getEventId).collect(Collectors.toList()),
+                eventSink.getEvents().stream().map(EventDto::getEventId).collect(Collectors.toList()));
+
+        // Paging by offset
+        EventPageDto firstPage = outboxService.getEvents(0L, 2);
+        assertEquals(2, firstPage.getEvents().size());
+        assertEquals(2L, firstPage.getNextOffset());
+        EventPageDto lastPage = outboxService.getEvents(firstPage.getNextOffset(), 10);
+        assertEquals(List.of(3L, 4L, 5L),
+                lastPage.getEvents().stream().map(EventDto::getOffset).collect(Collectors.toList()));
+        assertEquals(5L, lastPage.getNextOffset());
+        assertThrows(ValidationException.class, () -> outboxService.getEvents(-1L, null));
+    }
+}
@@ -0,0 +1,144 @@
+package com.gymmanagement.gym_management_application;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Restarts the prod profile against a file-backed database seeded with a million bookings, then checks the
+// restart time and that the repository queries are planned on their indexes. Seeding takes a while, so the
+// test only runs when asked for:
+//   mvn test -Dtest=ProductionStartupTest -Dgym.startup-test=true
+@EnabledIfSystemProperty(named = "gym.startup-test", matches = "true")
+class ProductionStartupTest {
+
+    private static final int CLASSES = 1_000;
+    private static final int BOOKINGS = 1_000_000;
+    private static final int MEMBERS = 50_000;
+    private static final int SEED_CHUNK = 50_000;
+    // Bookings of row x are for class x mod CLASSES on day x mod 365, so they fall into lcm(CLASSES, 365) sessions
+    private static final int SESSIONS = 73_000;
+    // SQL migrations under db/migration
+    private static final int MIGRATIONS = 10;
+    private static final Duration MAX_RESTART = Duration.ofSeconds(30);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void testRestartAndQueryPlansAgainstMillionBookingDatabase() {
+        // First start creates the schema through Flyway, then the data is seeded and the database closed
+        try (ConfigurableApplicationContext context = start()) {
+            seed(context.getBean(JdbcTemplate.class));
+        }
+
+        long restartStarted = System.nanoTime();
+        try (ConfigurableApplicationContext context = start()) {
+            Duration restart = Duration.ofNanos(System.nanoTime() - restartStarted);
+            assertTrue(restart.compareTo(MAX_RESTART) < 0, "Restart took " + restart);
+
+            // Data survived the restart and no migration ran a second time
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertEquals(BOOKINGS, jdbcTemplate.queryForObject("select count(*) from booking", Long.class));
+            assertEquals(MIGRATIONS, jdbcTemplate.queryForObject(
+                    "select count(*) from \"flyway_schema_history\" where \"type\" = 'SQL'", Integer.class));
+
+            long classId = jdbcTemplate.queryForObject("select min(id) from club_class", Long.class);
+            long memberId = jdbcTemplate.queryForObject("select id from member where name = 'Member 42'", Long.class);
+            LocalDate today = LocalDate.now();
+
+            // BookingRepository searches. H2 gives the member foreign key an index of its own, which serves a
+            // lookup by member alone as well as the composite index does
+            assertPlanUses(jdbcTemplate, List.of("IDX_BOOKING_MEMBER_DATE", "FK_BOOKING_MEMBER"), viewQuery(
+                    "b.member_id = " + memberId + " and b.id > 0"));
+            assertPlanUses(jdbcTemplate, "IDX_BOOKING_MEMBER_DATE", viewQuery(
+                    "b.member_id = " + memberId + " and b.participation_date between date '" + today
+                            + "' and date '" + today.plusDays(30) + "' and b.id > 0"));
+            // A short date range either seeks the date index or, as the page is small and ordered by id, walks the
+            // primary key in order until the page is full; both avoid sorting the matching rows
+            assertPlanUses(jdbcTemplate, List.of("IDX_BOOKING_DATE", "index sorted"), viewQuery(
+                    "b.participation_date between date '" + today + "' and date '" + today.plusDays(2)
+                            + "' and b.id > 0"));
+            assertPlanUses(jdbcTemplate, "IDX_BOOKING_CLASS_DATE",
+                    "select count(*) from booking b where b.class_id = " + classId
+                            + " and b.participation_date = date '" + today + "'");
+
+            // ClubClassRepository overlap check for a class starting next year
+            LocalDate nextYear = today.plusYears(1);
+            assertPlanUses(jdbcTemplate, "IDX_CLUB_CLASS_END_START",
+                    "select * from club_class c where c.start_date < date '" + nextYear.plusDays(7)
+                            + "' and c.end_date > date '" + nextYear + "' fetch first 1 rows only");
+
+            // ClassSessionRepository reads of every class's sessions over a few days, for the timetable and rollups
+            assertPlanUses(jdbcTemplate, "IDX_CLASS_SESSION_DATE",
+                    "select * from class_session s where s.participation_date between date '" + today
+                            + "' and date '" + today.plusDays(6) + "'");
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return SpringApplication.run(GymManagementApplication.class,
+                "--spring.profiles.active=prod",
+                "--gym.data-dir=" + dataDir,
+                "--spring.main.web-application-type=none");
+    }
+
+    // Seed with set-based inserts: classes spread over the past and coming year, bookings spread over members,
+    // classes and a year of participation dates
+    private void seed(JdbcTemplate jdbcTemplate) {
+        LocalDate firstDate = LocalDate.now().minusDays(CLASSES / 2);
+        jdbcTemplate.update("insert into club_class (name, start_date, end_date, start_time, duration, capacity) " +
+                "select 'Class ' || x, dateadd(day, x, date '" + firstDate + "'), " +
+                "dateadd(day, x + 1, date '" + firstDate + "'), time '09:00:00', 60, 1000 " +
+                "from system_range(0, " + (CLASSES - 1) + ")");
+        long firstClassId = jdbcTemplate.queryForObject("select min(id) from club_class", Long.class);
+
+        // Member ids come from a sequence incrementing by 50
+        jdbcTemplate.update("insert into member (id, name) select next value for member_seq, 'Member ' || x " +
+                "from system_range(0, " + (MEMBERS - 1) + ")");
+        long firstMemberId = jdbcTemplate.queryForObject("select min(id) from member", Long.class);
+
+        // Session ids are given explicitly so each booking can compute its own: session y holds the bookings of
+        // every row x with x mod SESSIONS = y. The identity then continues after them for the expansion job.
+        jdbcTemplate.update("insert into class_session (id, class_id, participation_date, capacity, booked) " +
+                "select 1 + x, " + firstClassId + " + mod(x, " + CLASSES + "), " +
+                "dateadd(day, mod(x, 365), current_date), 1000, 0 from system_range(0, " + (SESSIONS - 1) + ")");
+        jdbcTemplate.execute("alter table class_session alter column id restart with " + (SESSIONS + 1));
+
+        // Insert in chunks so no single transaction has to hold a million uncommitted rows
+        for (int from = 1; from <= BOOKINGS; from += SEED_CHUNK) {
+            jdbcTemplate.update("insert into booking (id, member_id, class_id, participation_date, session_id) " +
+                    "select next value for booking_seq, " + firstMemberId + " + 50 * mod(x, " + MEMBERS + "), " +
+                    firstClassId + " + mod(x, " + CLASSES + "), dateadd(day, mod(x, 365), current_date), " +
+                    "1 + mod(x, " + SESSIONS + ") " +
+                    "from system_range(" + from + ", " + (from + SEED_CHUNK - 1) + ")");
+        }
+        jdbcTemplate.execute("analyze");
+    }
+
+    // The SQL Hibernate generates for the BookingView keyset queries, with literal arguments
+    private String viewQuery(String where) {
+        return "select b.id, m.name, c.id, b.participation_date, c.start_time " +
+                "from booking b join club_class c on c.id = b.class_id join member m on m.id = b.member_id " +
+                "where " + where + " order by b.id fetch first 51 rows only";
+    }
+
+    private void assertPlanUses(JdbcTemplate jdbcTemplate, String index, String sql) {
+        assertPlanUses(jdbcTemplate, List.of(index), sql);
+    }
+
+    private void assertPlanUses(JdbcTemplate jdbcTemplate, List<String> acceptedPlans, String sql) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        assertTrue(acceptedPlans.stream().anyMatch(plan::contains),
+                "Expected one of " + acceptedPlans + " in plan:\n" + plan);
+    }
+}
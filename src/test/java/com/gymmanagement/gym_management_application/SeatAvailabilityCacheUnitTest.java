@@ -0,0 +1,108 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.cache.SeatAvailabilityCache;
+import com.gymmanagement.gym_management_application.cache.SeatAvailabilityCache.SeatCount;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatAvailabilityCacheUnitTest {
+
+    private final LocalDate date = LocalDate.now().plusDays(1);
+
+    @Test
+    void testGet_LoadsOnceThenHits() {
+        SeatAvailabilityCache cache = new SeatAvailabilityCache(10, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        SeatCount first = cache.get(1L, date, () -> {
+            loads.incrementAndGet();
+            return new SeatCount(10, 4);
+        });
+        SeatCount second = cache.get(1L, date, () -> {
+            loads.incrementAndGet();
+            return new SeatCount(10, 0);
+        });
+
+        assertEquals(6, first.remaining());
+        assertEquals(6, second.remaining());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testGetUncounted_LoadsOnceWithoutCounting() {
+        SeatAvailabilityCache cache = new SeatAvailabilityCache(10, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getUncounted(1L, date, () -> {
+            loads.incrementAndGet();
+            return new SeatCount(10, 4);
+        });
+        SeatCount cached = cache.getUncounted(1L, date, () -> {
+            loads.incrementAndGet();
+            return new SeatCount(10, 0);
+        });
+
+        assertEquals(4, cached.booked());
+        assertEquals(1, loads.get());
+        assertEquals(0, cache.hitCount());
+        assertEquals(0, cache.missCount());
+
+        // The loaded count serves the availability reads as well
+        assertEquals(6, cache.get(1L, date, () -> new SeatCount(10, 0)).remaining());
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testRecordBooked_KeepsLargestCountAndDetectsFull() {
+        SeatAvailabilityCache cache = new SeatAvailabilityCache(10, Duration.ofMinutes(5));
+
+        cache.recordBooked(1L, date, 2, 2);
+        cache.recordBooked(1L, date, 2, 1); // An older observation arriving late must not free a seat
+
+        assertTrue(cache.isKnownFull(1L, date));
+        assertFalse(cache.isKnownFull(2L, date));
+
+        // The pre-check is not an availability read, so it leaves the hit ratio alone
+        assertEquals(0, cache.hitCount());
+        assertEquals(0, cache.missCount());
+    }
+
+    @Test
+    void testEviction_LeastRecentlyUsedAndExpired() {
+        SeatAvailabilityCache cache = new SeatAvailabilityCache(2, Duration.ofMinutes(5));
+        cache.recordBooked(1L, date, 5, 1);
+        cache.recordBooked(2L, date, 5, 1);
+        cache.isKnownFull(1L, date); // Touch class 1 so class 2 becomes the eldest
+        cache.recordBooked(3L, date, 5, 1);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertFalse(cache.isKnownFull(2L, date));
+
+        SeatAvailabilityCache expiring = new SeatAvailabilityCache(10, Duration.ZERO);
+        expiring.recordBooked(1L, date, 1, 1);
+        assertFalse(expiring.isKnownFull(1L, date));
+        assertEquals(1, expiring.evictionCount());
+    }
+
+    @Test
+    void testInvalidate_DiscardsValueLoadedConcurrently() {
+        SeatAvailabilityCache cache = new SeatAvailabilityCache(10, Duration.ofMinutes(5));
+
+        // Invalidation lands while the loader is still reading the old count
+        cache.get(1L, date, () -> {
+            cache.invalidate(1L, date);
+            return new SeatCount(1, 1);
+        });
+
+        assertFalse(cache.isKnownFull(1L, date));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,24 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Class fixture shared by the Spring Boot tests: a morning class running every day for the next 30 days
+final class TestClasses {
+
+    private TestClasses() {
+    }
+
+    static ClubClass newClass(String name, int capacity) {
+        ClubClass clazz = new ClubClass();
+        clazz.setName(name);
+        clazz.setStartDate(LocalDate.now().plusDays(1));
+        clazz.setEndDate(LocalDate.now().plusDays(30));
+        clazz.setStartTime(LocalTime.of(7, 0));
+        clazz.setDuration(45);
+        clazz.setCapacity(capacity);
+        return clazz;
+    }
+}
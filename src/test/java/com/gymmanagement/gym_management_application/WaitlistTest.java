@@ -0,0 +1,83 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.WaitlistEntryDto;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.exception.BookingWaitlistedException;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.repository.WaitlistEntryRepository;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
+import com.gymmanagement.gym_management_application.service.OccupancyService;
+import com.gymmanagement.gym_management_application.service.OccupancyService.SeatRelease;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static com.gymmanagement.gym_management_application.TestClasses.newClass;
+import static org.junit.jupiter.api.Assertions.*;
+
+@IsolatedDatabase
+@SpringBootTest
+class WaitlistTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Autowired
+    private ClassSessionService sessionService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ClubClassRepository classRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testFullClass_QueuesMembersInOrderAndPromotesHeadOnRelease() {
+        ClubClass savedClass = classRepository.save(newClass("Boxing Class", 2));
+        LocalDate participationDate = LocalDate.now().plusDays(3);
+
+        bookingService.createBooking(new BookingDto("Alice", savedClass.getId(), participationDate, null));
+        bookingService.createBooking(new BookingDto("Bob", savedClass.getId(), participationDate, null));
+
+        // Once full, members are queued in arrival order and a retry keeps the existing place
+        assertEquals(1, waitlist("Carol", savedClass, participationDate).getPosition());
+        assertEquals(2, waitlist("Dave", savedClass, participationDate).getPosition());
+        assertEquals(1, waitlist("Carol", savedClass, participationDate).getPosition());
+        assertEquals(2, waitlistRepository.count());
+
+        // A released seat goes to the head of the queue and the slot stays full
+        Long sessionId = sessionService.getSession(savedClass, participationDate).getId();
+        SeatRelease release = new TransactionTemplate(transactionManager).execute(status ->
+                occupancyService.releaseSeat(savedClass, sessionId));
+        assertNotNull(release.promotedBooking());
+        assertEquals("Carol", release.promotedBooking().getMember().getName());
+        assertEquals(2, release.bookedSeats());
+        assertEquals(3, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+
+        // Dave moves up to the head
+        assertEquals(1, waitlist("Dave", savedClass, participationDate).getPosition());
+        assertEquals(1, waitlistRepository.count());
+    }
+
+    private WaitlistEntryDto waitlist(String memberName, ClubClass clazz, LocalDate participationDate) {
+        BookingWaitlistedException e = assertThrows(BookingWaitlistedException.class, () ->
+                bookingService.createBooking(new BookingDto(memberName, clazz.getId(), participationDate, null)));
+        return e.getWaitlistEntry();
+    }
+}
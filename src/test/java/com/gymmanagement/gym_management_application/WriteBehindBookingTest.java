@@ -0,0 +1,316 @@
+package com.gymmanagement.gym_management_application;
+
+import com.gymmanagement.gym_management_application.dto.BookingDto;
+import com.gymmanagement.gym_management_application.dto.BookingResponseDto;
+import com.gymmanagement.gym_management_application.entity.Booking;
+import com.gymmanagement.gym_management_application.entity.ClubClass;
+import com.gymmanagement.gym_management_application.exception.BookingWaitlistedException;
+import com.gymmanagement.gym_management_application.repository.BookingRepository;
+import com.gymmanagement.gym_management_application.repository.ClubClassRepository;
+import com.gymmanagement.gym_management_application.repository.WaitlistEntryRepository;
+import com.gymmanagement.gym_management_application.service.AvailabilityService;
+import com.gymmanagement.gym_management_application.service.ClassSessionService;
+import com.gymmanagement.gym_management_application.service.DuplicateBookingService;
+import com.gymmanagement.gym_management_application.service.MemberService;
+import com.gymmanagement.gym_management_application.service.OccupancyService;
+import com.gymmanagement.gym_management_application.service.BookingService;
+import com.gymmanagement.gym_management_application.service.WriteBehindBookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.gymmanagement.gym_management_application.TestClasses.newClass;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+@IsolatedDatabase
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=off",
+        "gym.write-behind.enabled=true",
+        "gym.write-behind.journal=target/write-behind-${random.uuid}/booking-journal.log",
+        "gym.write-behind.journal-fsync=false"
+})
+class WriteBehindBookingTest {
+
+    private static final int CAPACITY = 10;
+    private static final int ATTEMPTS = 60;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private WriteBehindBookingService writeBehindBookingService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ClubClassRepository classRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Autowired
+    private OccupancyService occupancyService;
+
+    @Autowired
+    private ClassSessionService sessionService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    private AvailabilityService availabilityService;
+
+    @MockitoSpyBean
+    private DuplicateBookingService duplicateBookingService;
+
+    @Test
+    void testConcurrentSubmits_AcceptCapacityThenWaitlistAndInsertInBackground() throws Exception {
+        ClubClass savedClass = classRepository.save(newClass("Cycling Class", CAPACITY));
+        LocalDate participationDate = LocalDate.now().plusDays(6);
+
+        Set<Long> acceptedIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger waitlisted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ATTEMPTS; i++) {
+                BookingDto bookingDto = new BookingDto("Member " + i, savedClass.getId(), participationDate, null);
+                futures.add(executor.submit(() -> {
+                    try {
+                        acceptedIds.add(writeBehindBookingService.submit(bookingDto, null).getBookingId());
+                    } catch (BookingWaitlistedException e) {
+                        waitlisted.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Exactly the capacity was accepted, and every accepted id ends up in the database
+        assertEquals(CAPACITY, acceptedIds.size());
+        assertEquals(ATTEMPTS - CAPACITY, waitlisted.get());
+        awaitInserted();
+        assertEquals(CAPACITY, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+        assertEquals(acceptedIds.size(), bookingRepository.findExistingIds(new ArrayList<>(acceptedIds)).size());
+        assertEquals(ATTEMPTS - CAPACITY, waitlistRepository.countByClassIdAndParticipationDateAndIdLessThanEqual(
+                savedClass.getId(), participationDate, Long.MAX_VALUE));
+
+        // Ids Hibernate assigns to synchronous bookings come from other blocks of the same sequence
+        ClubClass otherClass = classRepository.save(newClass("Pilates Class", CAPACITY));
+        BookingResponseDto synchronous = bookingService.createBooking(
+                new BookingDto("Member 0", otherClass.getId(), participationDate, null));
+        assertFalse(acceptedIds.contains(synchronous.getBookingId()));
+    }
+
+    @Test
+    void testRetriesWithSameIdempotencyKey_GetTheSameBooking() throws Exception {
+        ClubClass savedClass = classRepository.save(newClass("Yoga Class", CAPACITY));
+        BookingDto bookingDto = new BookingDto("Alice", savedClass.getId(), LocalDate.now().plusDays(3), null);
+
+        // Concurrent retries while the booking is still queued
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> ids.add(writeBehindBookingService.submit(bookingDto, "retry-1").getBookingId())));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, ids.size());
+
+        // A retry once the booking is inserted finds it in the database
+        awaitInserted();
+        Long bookingId = ids.iterator().next();
+        assertEquals(bookingId, writeBehindBookingService.submit(bookingDto, "retry-1").getBookingId());
+        assertEquals(bookingId, bookingRepository.findByIdempotencyKey("retry-1").orElseThrow().getId());
+        assertEquals(1, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), bookingDto.getParticipationDate()));
+    }
+
+    @Test
+    void testSeatCheck_CountsAcceptedSeatsWhileTheirInsertCommits() throws Exception {
+        ClubClass savedClass = classRepository.save(newClass("Boxing Class", 1));
+        LocalDate participationDate = LocalDate.now().plusDays(4);
+
+        // The writer records Alice's committed booking only once Bob's seat check has read the count, and Bob's
+        // check goes on only once it was recorded and the writer had the chance to let Alice's accepted seat go:
+        // the count Bob read is stale by the time he takes a seat
+        AtomicBoolean holdWriter = new AtomicBoolean(true);
+        AtomicBoolean holdCheck = new AtomicBoolean();
+        CountDownLatch countRead = new CountDownLatch(1);
+        CountDownLatch committedRecorded = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (holdWriter.compareAndSet(true, false)) {
+                assertTrue(countRead.await(10, TimeUnit.SECONDS));
+                invocation.callRealMethod();
+                committedRecorded.countDown();
+                return null;
+            }
+            return invocation.callRealMethod();
+        }).when(availabilityService).recordBooked(any(), any(), anyInt(), anyInt());
+        doAnswer(invocation -> {
+            Object booked = invocation.callRealMethod();
+            if (holdCheck.compareAndSet(true, false)) {
+                countRead.countDown();
+                assertTrue(committedRecorded.await(10, TimeUnit.SECONDS));
+                // Give the writer the chance to let Alice's accepted seat go before Bob takes one
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+                while (writeBehindBookingService.getPendingCount() > 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+            }
+            return booked;
+        }).when(availabilityService).getBookedSeats(any(), any());
+
+        writeBehindBookingService.submit(new BookingDto("Alice", savedClass.getId(), participationDate, null), null);
+        holdCheck.set(true);
+
+        // Alice's seat still counts as accepted while Bob checks, so the only seat is not handed out twice
+        assertThrows(BookingWaitlistedException.class, () -> writeBehindBookingService.submit(
+                new BookingDto("Bob", savedClass.getId(), participationDate, null), null));
+        awaitInserted();
+        assertEquals(1, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+    }
+
+    @Test
+    void testRetryWithSameIdempotencyKey_GetsTheWaitlistPlaceTheWriterGaveInstead() throws Exception {
+        ClubClass savedClass = classRepository.save(newClass("Rowing Class", 1));
+        LocalDate participationDate = LocalDate.now().plusDays(5);
+
+        // The seat cache still counts the slot as empty when a booking takes its only seat behind its back
+        availabilityService.getAvailability(savedClass.getId(), participationDate);
+        Long sessionId = sessionService.getSession(savedClass, participationDate).getId();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            occupancyService.reserveSeats(sessionId, 1);
+            Booking booking = new Booking();
+            booking.setMember(memberService.resolve("Bob"));
+            booking.setClazz(savedClass);
+            booking.setParticipationDate(participationDate);
+            booking.setSessionId(sessionId);
+            bookingRepository.save(booking);
+        });
+
+        // Alice is accepted, but the writer finds the slot full and queues her on the waitlist
+        BookingDto bookingDto = new BookingDto("Alice", savedClass.getId(), participationDate, null);
+        writeBehindBookingService.submit(bookingDto, "retry-waitlisted");
+        awaitInserted();
+        assertTrue(waitlistRepository.findFirstByClassIdAndParticipationDateOrderByIdAsc(
+                savedClass.getId(), participationDate).isPresent());
+
+        // A retry gets that waitlist place rather than a new booking
+        BookingWaitlistedException retried = assertThrows(BookingWaitlistedException.class,
+                () -> writeBehindBookingService.submit(bookingDto, "retry-waitlisted"));
+        assertEquals(1, retried.getWaitlistEntry().getPosition());
+        assertEquals(1, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+    }
+
+    @Test
+    void testRejectedBooking_IsGivenUpWithoutHoldingUpTheOthers() throws Exception {
+        ClubClass savedClass = classRepository.save(newClass("Spinning Class", CAPACITY));
+        LocalDate participationDate = LocalDate.now().plusDays(7);
+
+        // The database rejects every insert of Mallory's booking by the writer
+        Long malloryId = memberService.resolve("Mallory").getId();
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (rejecting.get() && malloryId.equals(invocation.getArgument(0))
+                    && "booking-write-behind".equals(Thread.currentThread().getName())) {
+                throw new DataIntegrityViolationException("Rejected");
+            }
+            return invocation.callRealMethod();
+        }).when(duplicateBookingService).isBooked(anyLong(), anyLong(), any());
+
+        BookingDto malloryBooking = new BookingDto("Mallory", savedClass.getId(), participationDate, null);
+        Long rejectedId = writeBehindBookingService.submit(malloryBooking, "retry-rejected").getBookingId();
+        Long carolId = writeBehindBookingService.submit(
+                new BookingDto("Carol", savedClass.getId(), participationDate, null), null).getBookingId();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (writeBehindBookingService.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, writeBehindBookingService.getPendingCount());
+        assertEquals(List.of(carolId), bookingRepository.findExistingIds(List.of(rejectedId, carolId)));
+
+        // Nothing was saved for the rejected booking, so a retry books anew
+        rejecting.set(false);
+        Long retriedId = writeBehindBookingService.submit(malloryBooking, "retry-rejected").getBookingId();
+        assertNotEquals(rejectedId, retriedId);
+        awaitInserted();
+        assertEquals(2, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+    }
+
+    @Test
+    void testAttemptThatCommittedButReportedFailure_KeepsItsBookingOnRetry() throws Exception {
+        ClubClass savedClass = classRepository.save(newClass("Zumba Class", CAPACITY));
+        LocalDate participationDate = LocalDate.now().plusDays(8);
+
+        // The writer's first transaction commits, then reports a lost connection
+        AtomicBoolean failing = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if ("booking-write-behind".equals(Thread.currentThread().getName()) && failing.compareAndSet(true, false)) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        throw new DataAccessResourceFailureException("Connection lost");
+                    }
+                });
+            }
+            return invocation.callRealMethod();
+        }).when(duplicateBookingService).isBooked(anyLong(), anyLong(), any());
+
+        BookingDto bookingDto = new BookingDto("Dave", savedClass.getId(), participationDate, null);
+        Long bookingId = writeBehindBookingService.submit(bookingDto, "retry-committed").getBookingId();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (writeBehindBookingService.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(failing.get());
+        assertEquals(0, writeBehindBookingService.getPendingCount());
+
+        // The retry found the booking inserted rather than taking it for a duplicate of itself
+        assertEquals(bookingId, writeBehindBookingService.submit(bookingDto, "retry-committed").getBookingId());
+        assertEquals(1, bookingRepository.countByClazzIdAndParticipationDate(savedClass.getId(), participationDate));
+        assertEquals(1, availabilityService.getAvailability(savedClass.getId(), participationDate).getBooked());
+    }
+
+    private void awaitInserted() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writeBehindBookingService.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+}